@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.benchmark;
+
+import com.codelanx.minigamelib.game.Game;
+import com.codelanx.minigamelib.game.GameManager;
+import com.codelanx.minigamelib.implementors.Minigame;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link GameManager#query(java.util.function.Predicate)} and
+ * {@link GameManager#find(java.util.function.Predicate)} over managers of
+ * different sizes. {@link GameManager} has no way to add games yet, so its
+ * map is filled reflectively.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameManagerBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int games;
+
+    private GameManager<BenchGame> manager;
+    private int last;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws ReflectiveOperationException {
+        this.manager = new GameManager<>();
+        Field field = GameManager.class.getDeclaredField("games");
+        field.setAccessible(true);
+        Map<Integer, BenchGame> map = (Map<Integer, BenchGame>) field.get(this.manager);
+        for (int i = 0; i < this.games; i++) {
+            //One game in four is waiting for players
+            map.put(i, new BenchGame(i, i % 4 == 0));
+        }
+        this.last = this.games - 1;
+    }
+
+    @Benchmark
+    public List<? extends Game> queryOpen() {
+        return this.manager.query(g -> ((BenchGame) g).open);
+    }
+
+    @Benchmark
+    public Game findFirstOpen() {
+        return this.manager.find(g -> ((BenchGame) g).open);
+    }
+
+    @Benchmark
+    public Game findLast() {
+        return this.manager.find(g -> ((BenchGame) g).getId() == this.last);
+    }
+
+    @Benchmark
+    public Game findMissing() {
+        return this.manager.find(g -> ((BenchGame) g).getId() < 0);
+    }
+
+    /**
+     * A plugin type satisfying the bounds of {@link Game}
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    interface MinigamePlugin extends Plugin, Minigame {
+    }
+
+    /**
+     * A {@link Game} with no behaviour, only an id and whether it is open
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    static final class BenchGame extends Game<MinigamePlugin> {
+
+        private final boolean open;
+
+        BenchGame(int id, boolean open) {
+            super(null, id);
+            this.open = open;
+        }
+
+        int getId() {
+            return this.id;
+        }
+
+        @Override
+        protected void handleJoin(Player p) {
+        }
+
+        @Override
+        protected void handleLeave(Player p) {
+        }
+
+        @Override
+        protected void restart() {
+        }
+
+        @Override
+        protected void dd() {
+        }
+
+    }
+
+}
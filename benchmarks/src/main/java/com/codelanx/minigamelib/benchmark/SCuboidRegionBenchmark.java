@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.benchmark;
+
+import com.codelanx.minigamelib.serialize.SCuboidRegion;
+import com.sk89q.worldedit.Vector;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link SCuboidRegion} round trip through its
+ * {@link org.bukkit.configuration.serialization.ConfigurationSerializable}
+ * form, which every arena config load and edit session save goes through
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SCuboidRegionBenchmark {
+
+    private SCuboidRegion region;
+    private Map<String, Object> serialized;
+
+    @Setup
+    public void setup() {
+        this.region = new SCuboidRegion(new Vector(-120, 12, 340), new Vector(-40, 96, 415));
+        this.serialized = this.region.serialize();
+    }
+
+    @Benchmark
+    public Map<String, Object> serialize() {
+        return this.region.serialize();
+    }
+
+    @Benchmark
+    public SCuboidRegion deserialize() {
+        return SCuboidRegion.deserialize(this.serialized);
+    }
+
+    @Benchmark
+    public SCuboidRegion roundTrip() {
+        return SCuboidRegion.deserialize(this.region.serialize());
+    }
+
+}
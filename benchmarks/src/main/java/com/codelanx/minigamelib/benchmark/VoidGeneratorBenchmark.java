@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.benchmark;
+
+import com.codelanx.minigamelib.arena.VoidGenerator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures chunk generation in {@link VoidGenerator}, which runs for every
+ * chunk an arena world loads that its template never saved. Layers with
+ * data values go through ChunkData, which needs a running server, so they
+ * are not covered here. Run with
+ * {@code -prof gc} to see the allocation per chunk.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class VoidGeneratorBenchmark {
+
+    @Param({"128", "256"})
+    public int maxHeight;
+
+    /** Layers without data values, which share their generated sections */
+    @Param({"", "7,3*3,2"})
+    public String layers;
+
+    private VoidGenerator generator;
+    private World world;
+    private Random random;
+    private int chunk;
+
+    @Setup
+    public void setup() {
+        this.generator = new VoidGenerator(this.layers);
+        this.world = Worlds.world("void", this.maxHeight);
+        this.random = new Random(0);
+    }
+
+    @Benchmark
+    public short[][] generateExtBlockSections() {
+        int c = this.chunk++;
+        return this.generator.generateExtBlockSections(this.world, this.random, c & 31, c >> 5, null);
+    }
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.benchmark;
+
+import com.codelanx.minigamelib.arena.CloneStrategy;
+import com.codelanx.minigamelib.arena.WorldFileEngine;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the world folder copy and delete paths that ArenaFactory runs
+ * for every new instance and every reaped one, through the same
+ * {@link WorldFileEngine} and {@link CloneStrategy}. Templates are
+ * synthetic folders of 1 MiB region files.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class WorldFilesBenchmark {
+
+    /**
+     * A template folder shared by every invocation, and the engine that
+     * clones it
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    @State(Scope.Benchmark)
+    public static class Template {
+
+        @Param({"4", "32", "128"})
+        public int regions;
+
+        @Param({"1", "4"})
+        public int parallelism;
+
+        File root;
+        File template;
+        WorldFileEngine files;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            this.root = Worlds.scratch();
+            this.template = new File(this.root, "template");
+            Worlds.template(this.template, this.regions);
+            this.files = new WorldFileEngine(this.parallelism);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            this.files.delete(this.root);
+            this.files.shutdown();
+        }
+
+        File nextInstance() {
+            return new File(this.root, "instance_" + this.next++);
+        }
+
+    }
+
+    /**
+     * A destination folder for one copy, deleted again after the copy is
+     * measured
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    @State(Scope.Thread)
+    public static class Copy {
+
+        @Param({"COPY", "HARD_LINK"})
+        public CloneStrategy strategy;
+
+        File destination;
+
+        @Setup(Level.Invocation)
+        public void setup(Template t) {
+            this.destination = t.nextInstance();
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown(Template t) {
+            t.files.delete(this.destination);
+        }
+
+    }
+
+    /**
+     * A full copy of the template, made before each measured delete
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    @State(Scope.Thread)
+    public static class Instance {
+
+        File folder;
+
+        @Setup(Level.Invocation)
+        public void setup(Template t) throws IOException {
+            this.folder = t.nextInstance();
+            t.files.copy(t.template, this.folder, CloneStrategy.COPY);
+        }
+
+    }
+
+    @Benchmark
+    public File copy(Template t, Copy c) throws IOException {
+        t.files.copy(t.template, c.destination, c.strategy);
+        return c.destination;
+    }
+
+    @Benchmark
+    public File delete(Template t, Instance i) {
+        t.files.delete(i.folder);
+        return i.folder;
+    }
+
+}
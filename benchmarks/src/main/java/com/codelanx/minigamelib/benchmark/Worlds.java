@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.UUID;
+import org.bukkit.World;
+
+/**
+ * Builds the stand-ins the benchmarks run against: {@link World} proxies for
+ * generator code, and synthetic world folders for file operations
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+final class Worlds {
+
+    /** The size of each synthetic region file, a lightly populated region */
+    static final int REGION_BYTES = 1 << 20;
+
+    private Worlds() {
+    }
+
+    /**
+     * Returns a {@link World} that only answers the calls a chunk generator
+     * makes. Anything else throws, so a benchmark can never silently measure
+     * a stubbed call.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param name The name of the world
+     * @param maxHeight The maximum height of the world
+     * @return A new {@link World} proxy
+     */
+    static World world(String name, int maxHeight) {
+        return (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[]{World.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName":
+                    return name;
+                case "getMaxHeight":
+                    return maxHeight;
+                case "getSeaLevel":
+                    return 64;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "World{" + name + "}";
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    /**
+     * Returns the folder benchmarks should create world folders in. Set
+     * {@code minigamelib.bench.dir} to measure a specific filesystem.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return A new, empty folder
+     * @throws IOException Failure to create the folder
+     */
+    static File scratch() throws IOException {
+        String dir = System.getProperty("minigamelib.bench.dir");
+        if (dir == null) {
+            return Files.createTempDirectory("minigamelib-bench").toFile();
+        }
+        File parent = new File(dir);
+        parent.mkdirs();
+        return Files.createTempDirectory(parent.toPath(), "minigamelib-bench").toFile();
+    }
+
+    /**
+     * Writes a synthetic world folder laid out like a saved template: level
+     * and player data, and a square of region files filled with random
+     * bytes
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param folder The folder to create
+     * @param regions The number of region files to write
+     * @throws IOException Failure to write the folder
+     */
+    static void template(File folder, int regions) throws IOException {
+        Random random = new Random(regions);
+        File region = new File(folder, "region");
+        File data = new File(folder, "data");
+        File players = new File(folder, "playerdata");
+        region.mkdirs();
+        data.mkdirs();
+        players.mkdirs();
+        Worlds.write(new File(folder, "level.dat"), 2048, random);
+        Worlds.write(new File(folder, "session.lock"), 8, random);
+        Worlds.write(new File(data, "villages.dat"), 128, random);
+        for (int i = 0; i < 4; i++) {
+            Worlds.write(new File(players, new UUID(regions, i) + ".dat"), 1024, random);
+        }
+        int side = (int) Math.ceil(Math.sqrt(regions));
+        for (int i = 0; i < regions; i++) {
+            int x = i % side - side / 2;
+            int z = i / side - side / 2;
+            Worlds.write(new File(region, "r." + x + "." + z + ".mca"), REGION_BYTES, random);
+        }
+    }
+
+    private static void write(File file, int size, Random random) throws IOException {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        Files.write(file.toPath(), bytes);
+    }
+
+}
@@ -21,8 +21,11 @@ package com.codelanx.minigamelib;
 
 import com.codelanx.codelanxlib.CodelanxPlugin;
 import com.codelanx.codelanxlib.serialize.SerializationFactory;
+import com.codelanx.minigamelib.game.ProfileCache;
 import com.codelanx.minigamelib.implementors.Minigame;
+import com.codelanx.minigamelib.internal.ConfigValue;
 import com.codelanx.minigamelib.listener.GravestoneListener;
+import com.codelanx.minigamelib.listener.ProtectionListener;
 import com.codelanx.minigamelib.serialize.SCuboidRegion;
 import com.codelanx.minigamelib.serialize.SSignReference;
 
@@ -37,6 +40,8 @@ import com.codelanx.minigamelib.serialize.SSignReference;
  */
 public abstract class CodelanxMinigame<E extends CodelanxMinigame<E>> extends CodelanxPlugin<E> implements Minigame {
 
+    private ProfileCache profiles;
+
     @Override
     public void onLoad() {
         SerializationFactory.registerClasses(false,
@@ -47,7 +52,16 @@ public abstract class CodelanxMinigame<E extends CodelanxMinigame<E>> extends Co
     public void onEnable() {
         super.onEnable();
 
+        this.profiles = new ProfileCache(this,
+                ConfigValue.PROFILE_CACHE_SIZE.as(int.class),
+                ConfigValue.PROFILE_CACHE_TTL.as(long.class));
         new GravestoneListener(this);
+        new ProtectionListener(this);
+    }
+
+    @Override
+    public ProfileCache getProfileCache() {
+        return this.profiles;
     }
 
     
@@ -20,9 +20,11 @@
 package com.codelanx.minigamelib;
 
 import com.codelanx.codelanxlib.CodelanxLib;
+import com.codelanx.minigamelib.arena.VoidGenerator;
 import java.io.IOException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.bukkit.generator.ChunkGenerator;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.mcstats.Metrics;
 
@@ -53,4 +55,19 @@ public class MinigameLib extends JavaPlugin {
         }
     }
 
+    /**
+     * Provides a {@link VoidGenerator} for worlds set to use this plugin's
+     * generator, with the generator id as its layers, e.g.
+     * {@code MinigameLib:bedrock,3*dirt,grass}
+     * <br><br>
+     * {@inheritDoc}
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    @Override
+    public ChunkGenerator getDefaultWorldGenerator(String worldName, String id) {
+        return new VoidGenerator(id);
+    }
+
 }
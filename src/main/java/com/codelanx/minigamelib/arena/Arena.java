@@ -19,7 +19,6 @@
  */
 package com.codelanx.minigamelib.arena;
 
-import com.codelanx.codelanxlib.config.Config;
 import com.codelanx.codelanxlib.data.types.Yaml;
 import com.sk89q.worldedit.regions.CuboidRegion;
 import java.io.File;
@@ -27,6 +26,7 @@ import java.util.Collections;
 import java.util.List;
 import org.bukkit.Location;
 import org.bukkit.World;
+import org.bukkit.util.Vector;
 
 /**
  * Wrapper for a world object for use in games
@@ -47,32 +47,61 @@ public class Arena {
     protected World world;
     /** The {@link ConfigurationLoader} for this specific {@link Arena} */
     protected Yaml config;
+    /** The shared metadata of the template this {@link Arena} was made from */
+    protected ArenaTemplate template;
+    /** The cell of a shared {@link World} this {@link Arena} is in, if any */
+    protected ArenaSlot slot;
     /** A {@link List} of permanent {@link CuboidRegion} wall references */
-    protected final List<CuboidRegion> protect;
+    protected List<CuboidRegion> protect;
+    /** A spatial index over {@code protect}, built on first use */
+    protected ArenaRegionIndex index;
     /** A {@link List} of spawning {@link Location} objects */
-    protected final List<Location> spawns;
+    protected List<Location> spawns;
     /** A {@link Location} for spectators to spawn at */
     protected Location spectator;
+    /** Whether {@code spectator} has been bound from the template yet */
+    private boolean spectatorBound;
+    /** Whether the chunks around the spawns have been loaded */
+    private volatile boolean ready;
+    /** Time taken to warm up this {@link Arena}, in nanoseconds */
+    private volatile long warmupTime;
 
     /**
-     * {@link Arena} constructor
+     * {@link Arena} constructor. Regions and spawns are bound to the
+     * {@link World} the first time they are requested.
      *
      * @since 1.0.0
      * @version 1.0.0
      *
      * @param world The {@link World} tied to this {@link Arena}
      * @param origin The original {@link File} location of the {@link World}
+     * @param template The parsed metadata of the template
      */
-    Arena(World world, File origin) {
+    Arena(World world, File origin, ArenaTemplate template) {
         this.origin = origin;
         this.world = world;
         this.worldName = world.getName();
         this.worldLocation = world.getWorldFolder();
-        this.config = new Yaml(new File(this.worldLocation, "config.yml"));
-        this.protect = Config.retrieve(this.config, ArenaConfig.PROTECT_LOCATIONS).as(List.class);
-        this.spawns = Config.retrieve(this.config, ArenaConfig.SPAWN_LOCATIONS).as(List.class);
-        this.spectator = Config.retrieve(this.config, ArenaConfig.SPECTATE_LOCATION).as(Location.class);
-        Collections.shuffle(this.spawns);
+        this.template = template;
+    }
+
+    /**
+     * {@link Arena} constructor for an instance placed in a cell of a shared
+     * {@link World}. Regions and spawns are translated into the cell.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param slot The {@link ArenaSlot} holding this {@link Arena}
+     * @param origin The original {@link File} location of the {@link World}
+     * @param template The parsed metadata of the template
+     */
+    Arena(ArenaSlot slot, File origin, ArenaTemplate template) {
+        this.origin = origin;
+        this.world = slot.getWorld();
+        this.worldName = slot.toString();
+        this.slot = slot;
+        this.template = template;
     }
 
     /**
@@ -146,9 +175,55 @@ public class Arena {
      * @return The {@link ConfigurationLoader} of this {@link Arena}
      */
     public final Yaml getConfig() {
+        if (this.config == null) {
+            //Slotted arenas have no folder of their own and read the template's
+            File folder = this.slot == null ? this.worldLocation : this.origin;
+            if (folder != null) {
+                this.config = new Yaml(new File(folder, "config.yml"));
+            }
+        }
         return this.config;
     }
 
+    /**
+     * Returns the cell of a shared {@link World} this {@link Arena} is in
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The {@link ArenaSlot}, or {@code null} if this {@link Arena}
+     *         has a {@link World} of its own
+     */
+    public final ArenaSlot getSlot() {
+        return this.slot;
+    }
+
+    /**
+     * Returns the translation from template coordinates to coordinates in
+     * this {@link Arena}'s {@link World}
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The offset, which is zero if this {@link Arena} is not slotted
+     */
+    public final Vector getOffset() {
+        return this.slot == null ? new Vector(0, 0, 0) : new Vector(this.slot.getOffsetX(), 0, this.slot.getOffsetZ());
+    }
+
+    /**
+     * Returns the shared metadata of the template this {@link Arena} was
+     * made from
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The {@link ArenaTemplate} of this {@link Arena}
+     */
+    public final ArenaTemplate getTemplate() {
+        return this.template;
+    }
+
     /**
      * Returns a {@link List} of {@link CuboidRegion} objects that represent
      * protected walls in-game. Protected walls are never destroyed.
@@ -159,7 +234,24 @@ public class Arena {
      * @return A {@link List} of {@link CuboidRegion} objects
      */
     public final List<CuboidRegion> getProtectedWalls() {
-        return Collections.unmodifiableList(this.protect);
+        return Collections.unmodifiableList(this.protectList());
+    }
+
+    /**
+     * Returns a spatial index over the protected walls of this
+     * {@link Arena}, for checking whether blocks are protected without
+     * scanning every wall
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The {@link ArenaRegionIndex} of the protected walls
+     */
+    public final ArenaRegionIndex getRegionIndex() {
+        if (this.index == null) {
+            this.index = new ArenaRegionIndex(this.protectList());
+        }
+        return this.index;
     }
 
     /**
@@ -171,13 +263,97 @@ public class Arena {
      * @return A {@link List} of {@link Location} objects
      */
     public final List<Location> getSpawns() {
-        return Collections.unmodifiableList(this.spawns);
+        return Collections.unmodifiableList(this.spawnList());
     }
 
     public final Location getSpectatorSpawn() {
+        if (!this.spectatorBound) {
+            this.spectator = this.template.bindSpectator(this.world, this.offsetX(), this.offsetZ());
+            this.spectatorBound = true;
+        }
         return this.spectator;
     }
 
+    /**
+     * Returns whether the chunks around every spawn of this {@link Arena}
+     * have been loaded, so players can be sent in without stalling the
+     * server on chunk loads
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return {@code true} if this {@link Arena} finished warming up
+     */
+    public final boolean isReady() {
+        return this.ready;
+    }
+
+    /**
+     * Returns how long this {@link Arena} took to warm up
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The warm-up time in milliseconds, or 0 if not yet ready
+     */
+    public final long getWarmupMillis() {
+        return this.warmupTime / 1000000L;
+    }
+
+    /**
+     * Marks this {@link Arena} as ready for players
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param time The time taken to warm up, in nanoseconds
+     */
+    final void markReady(long time) {
+        this.warmupTime = time;
+        this.ready = true;
+    }
+
+    /**
+     * Returns the backing {@link List} of protected walls, binding it from
+     * the template on first use
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The mutable {@link List} of {@link CuboidRegion} objects
+     */
+    protected final List<CuboidRegion> protectList() {
+        if (this.protect == null) {
+            this.protect = this.template.bindRegions(this.world, this.offsetX(), this.offsetZ());
+        }
+        return this.protect;
+    }
+
+    /**
+     * Returns the backing {@link List} of spawns, binding and shuffling it
+     * from the template on first use
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The mutable {@link List} of {@link Location} objects
+     */
+    protected final List<Location> spawnList() {
+        if (this.spawns == null) {
+            this.spawns = this.template.bindSpawns(this.world, this.offsetX(), this.offsetZ());
+            Collections.shuffle(this.spawns);
+        }
+        return this.spawns;
+    }
+
+    private int offsetX() {
+        return this.slot == null ? 0 : this.slot.getOffsetX();
+    }
+
+    private int offsetZ() {
+        return this.slot == null ? 0 : this.slot.getOffsetZ();
+    }
+
     /**
      * Frees resources referenced by this {@link Arena} to allow it to be collected
      * 
@@ -186,13 +362,23 @@ public class Arena {
      */
     void dispose() {
         this.origin = null;
-        this.spawns.clear();
-        this.protect.clear();
+        if (this.spawns != null) {
+            this.spawns.clear();
+        }
+        if (this.protect != null) {
+            this.protect.clear();
+        }
+        this.spawns = null;
+        this.protect = null;
+        this.index = null;
+        this.template = null;
+        this.slot = null;
         this.config = null;
         this.worldLocation = null;
         this.worldName = null;
         this.world = null;
         this.spectator = null;
+        this.ready = false;
     }
 
 }
@@ -59,7 +59,13 @@ public enum ArenaConfig implements Config {
     /** Where to teleport players that want to spectate a game */
     SPECTATE_LOCATION("game.spectate-location", null),
     /** The spawn location for editing an {@link Arena} */
-    EDIT_SPAWN("editing.spawn", null);
+    EDIT_SPAWN("editing.spawn", null),
+    /** Number of pre-loaded instances of this {@link Arena} to keep ready */
+    POOL_MIN("pool.min", 0),
+    /** Maximum number of pre-loaded instances of this {@link Arena} */
+    POOL_MAX("pool.max", 0),
+    /** The region copied when this {@link Arena} is placed in a shared world */
+    SLOT_BOUNDS("slot.bounds", null);
 
     private static Yaml yaml;
     private final String path;
@@ -24,24 +24,46 @@ import com.codelanx.codelanxlib.config.Lang;
 import com.codelanx.codelanxlib.data.types.Yaml;
 import com.codelanx.codelanxlib.serialize.SLocation;
 import com.codelanx.codelanxlib.util.Debugger;
+import com.codelanx.codelanxlib.util.Scheduler;
+import com.codelanx.minigamelib.arena.ArenaMetrics.Phase;
+import com.codelanx.minigamelib.arena.TickScheduler.Priority;
+import com.codelanx.minigamelib.arena.TickScheduler.Quota;
+import com.codelanx.minigamelib.event.ArenaLoadEvent;
 import com.codelanx.minigamelib.event.ArenaPreDisposeEvent;
+import com.codelanx.minigamelib.internal.ConfigValue;
 import com.codelanx.minigamelib.internal.MinigameLang;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.channels.FileChannel;
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.WorldCreator;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldInitEvent;
 import org.bukkit.plugin.Plugin;
 
 /**
@@ -55,16 +77,60 @@ import org.bukkit.plugin.Plugin;
  */
 public class ArenaFactory {
 
+    /** The longest wait before retrying a failed pool refill, in seconds */
+    private static final long MAX_REFILL_RETRY = 300;
     /** The main {@link Plugin} instance */
     private final Plugin plugin;
     /** The main {@link File} directory of worlds to use */
     private final File worldFolder;
-    /** A {@link File} collection representing the world objects */
-    private final List<File> worlds = new ArrayList<>();
+    /** An index of the template world folders */
+    private final TemplateCatalog catalog;
     /** A {@link ChunkGenerator} for the void space around arenas */
-    private final VoidGenerator gen = new VoidGenerator();
+    private final VoidGenerator gen;
+    /** Templates of the instance worlds being created, by world name */
+    private final Map<String, ArenaTemplate> creating = new HashMap<>();
+    /** Keeps spawn chunks of arena worlds and chunks of pooled arenas in check */
+    private final Listener worldListener = new WorldListener();
     /** Tracks {@link EditSession} objects */
     private final Map<String, EditSession> editSessions = new HashMap<>();
+    /** Pre-loaded {@link Arena} instances, keyed by lowercase template name */
+    private final Map<String, ArenaPool> pools = new HashMap<>();
+    /** Instance folder names reserved by copies that are still running */
+    private final Set<String> reservedNames = new HashSet<>();
+    /** Runs world folder copies off the main thread */
+    private final ExecutorService io;
+    /** Runs main thread work in time slices, by priority */
+    private final TickScheduler scheduler;
+    /** Runs provisioning tasks on the server's main thread */
+    private final Executor mainThread;
+    /** Names of templates currently being created by handleBuild */
+    private final Set<String> building = new HashSet<>();
+    /** Latency histograms for each lifecycle phase, by template */
+    private final ArenaMetrics metrics = new ArenaMetrics();
+    /** The periodic metrics dump, or {@code null} if disabled */
+    private final ScheduledFuture<?> metricsDump;
+    /** How template folders are cloned into instance folders */
+    private final CloneStrategy cloner;
+    /** Copies and deletes world folders in parallel */
+    private final WorldFileEngine files;
+    /** Finds the files an instance changed relative to its template */
+    private final WorldDiff diff = new WorldDiff();
+    /** Templates held in memory for copying, or {@code null} if disabled */
+    private final TemplateCache cache;
+    /** Deletes disposed instance folders in the background */
+    private final WorldReaper reaper;
+    /** Loads the chunks around new instances' spawns */
+    private final ChunkWarmer warmer;
+    /** Hands out cells of shared worlds, or {@code null} if slots are off */
+    private final SlotAllocator slots;
+    /** Copies templates into slots */
+    private final SlotFiller filler;
+    /** Loaded copies of templates that slots are filled from */
+    private final Map<String, CompletableFuture<World>> sources = new HashMap<>();
+    /** Parsed template metadata, keyed by lowercase template name */
+    private final Map<String, ArenaTemplate> metadata = new ConcurrentHashMap<>();
+    /** Repacks of changed templates, whose packs are stale until they finish */
+    private final Map<String, CompletableFuture<Void>> repacks = new ConcurrentHashMap<>();
 
     /**
      * {@link ArenaFactory} constructor
@@ -78,25 +144,406 @@ public class ArenaFactory {
         this.plugin = plugin;
         this.worldFolder = new File(this.plugin.getDataFolder(), "worlds" + File.separatorChar);
         this.worldFolder.mkdirs();
+        AtomicInteger threads = new AtomicInteger();
+        this.io = Executors.newFixedThreadPool(Math.max(1, ConfigValue.ARENA_IO_THREADS.as(int.class)), r -> {
+            Thread t = new Thread(r, "MinigameLib-ArenaIO-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.scheduler = new TickScheduler(this.plugin, ConfigValue.ARENA_TICK_BUDGET_MS.as(double.class));
+        this.scheduler.start();
+        this.mainThread = this.scheduler.executor(Priority.PROVISION);
+        this.cloner = CloneStrategy.detect(ConfigValue.ARENA_CLONE_STRATEGY.as(String.class),
+                this.worldFolder, this.plugin.getServer().getWorldContainer());
+        this.plugin.getLogger().info("Cloning arena worlds with strategy " + this.cloner.name());
+        this.files = new WorldFileEngine(ConfigValue.ARENA_IO_PARALLELISM.as(int.class));
+        VoidGenerator generator;
+        try {
+            generator = new VoidGenerator(ConfigValue.ARENA_GENERATOR_LAYERS.as(String.class), this::instanceSpawn);
+        } catch (IllegalArgumentException ex) {
+            Debugger.error(ex, "Invalid generator layers, generating a void instead");
+            generator = new VoidGenerator(null, this::instanceSpawn);
+        }
+        this.gen = generator;
+        this.plugin.getServer().getPluginManager().registerEvents(this.worldListener, this.plugin);
+        long cacheSize = ConfigValue.ARENA_TEMPLATE_CACHE_MB.as(long.class);
+        this.cache = cacheSize > 0 ? new TemplateCache(cacheSize) : null;
+        File container = this.plugin.getServer().getWorldContainer();
+        this.reaper = new WorldReaper(container, this.files, this.io, this.metrics);
+        int orphans = this.reaper.reclaimOrphans(container, n -> this.plugin.getServer().getWorld(n) != null);
+        if (orphans > 0) {
+            this.plugin.getLogger().info("Reclaiming " + orphans + " arena world folder(s) left by a previous run");
+        }
+        this.warmer = new ChunkWarmer(this.scheduler, ConfigValue.ARENA_WARMUP_RADIUS.as(int.class),
+                ConfigValue.ARENA_WARMUP_CHUNKS_PER_TICK.as(int.class), this.metrics);
+        if (ConfigValue.ARENA_METRICS_JMX.as(boolean.class)) {
+            this.metrics.register(this.plugin.getName());
+        }
+        long dump = ConfigValue.ARENA_METRICS_DUMP_INTERVAL.as(long.class);
+        this.metricsDump = dump > 0 ? Scheduler.runAsyncTaskRepeat(this::dumpMetrics, dump, dump) : null;
+        if (ConfigValue.ARENA_SLOTS_ENABLED.as(boolean.class)) {
+            this.slots = new SlotAllocator(this::createSlotWorld, ConfigValue.ARENA_SLOTS_SIZE.as(int.class),
+                    ConfigValue.ARENA_SLOTS_PER_WORLD.as(int.class));
+            //Shared by every fill and clear, on top of the scheduler's time budget
+            Quota blocks = new Quota(Math.max(1, ConfigValue.ARENA_SLOTS_BLOCKS_PER_TICK.as(int.class)));
+            if ("CLIPBOARD".equalsIgnoreCase(ConfigValue.ARENA_SLOTS_FILLER.as(String.class))) {
+                this.filler = new ClipboardSlotFiller(this.scheduler, this::loadSourceWorld, this::releaseSourceWorld,
+                        blocks, ConfigValue.ARENA_SLOTS_CLIPBOARD_CACHE_MB.as(long.class));
+            } else {
+                this.filler = new WorldCopySlotFiller(this.scheduler, this::loadSourceWorld, blocks);
+            }
+        } else {
+            this.slots = null;
+            this.filler = null;
+        }
+        this.catalog = new TemplateCatalog(this.worldFolder, this.mainThread,
+                this::templateAdded, this::templateRemoved, this::templateChanged);
         this.initWorlds();
     }
 
     /**
-     * Initializes the <code>worlds</code> field, and sets it with appropriate
-     * world folders.
-     *
-     * <p>
-     * This method disables the plugin if no worlds are found</p>
+     * Sets up pools for the templates found at startup, and starts watching
+     * the worlds folder for templates being added, removed or replaced
      *
      * @since 1.0.0
      * @version 1.0.0
      */
     private void initWorlds() {
-        File[] f = this.worldFolder.listFiles(File::isDirectory);
-        if (f == null) {
+        this.catalog.getAll().forEach(this::initPool);
+        try {
+            this.catalog.start();
+        } catch (IOException ex) {
+            Debugger.error(ex, "Unable to watch the arena worlds folder, new templates require a restart");
+        }
+    }
+
+    /**
+     * Called on the main thread when a template folder appears
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The new template folder
+     */
+    private synchronized void templateAdded(File template) {
+        if (!this.pools.containsKey(template.getName().toLowerCase())) {
+            this.initPool(template);
+        }
+    }
+
+    /**
+     * Called on the main thread when a template folder is deleted. Running
+     * instances are unaffected.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The deleted template folder
+     */
+    private synchronized void templateRemoved(File template) {
+        this.forgetTemplate(template);
+        PackedTemplate.locate(template).delete();
+    }
+
+    /**
+     * Called on the main thread when the files of a template change. Cached
+     * data and idle pooled instances are discarded, the pool is set up again
+     * from the template's current config, and a packed template is rebuilt.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The changed template folder
+     */
+    private synchronized void templateChanged(File template) {
+        this.repack(template, CompletableFuture.completedFuture(null));
+        this.reloadTemplate(template);
+    }
+
+    /**
+     * Discards cached data and idle pooled instances of a template, and sets
+     * its pool up again from the template's current config
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The template folder
+     */
+    private synchronized void reloadTemplate(File template) {
+        this.forgetTemplate(template);
+        this.initPool(template);
+    }
+
+    /**
+     * Rebuilds the {@link PackedTemplate} of a changed template on the I/O
+     * executor, if it has one. Until the repack finishes, new instances are
+     * copied from the folder instead. Repacks of the same template run one
+     * after another.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The changed template folder
+     * @param after Completes once the folder is done changing
+     */
+    private void repack(File template, CompletableFuture<?> after) {
+        File packed = PackedTemplate.locate(template);
+        if (!packed.isFile()) {
+            return;
+        }
+        String key = template.getName().toLowerCase();
+        CompletableFuture<Void> back = this.repacks.compute(key, (k, previous) -> {
+            CompletableFuture<?> ready = previous == null ? after
+                    : CompletableFuture.allOf(after, previous.exceptionally(ex -> null));
+            return ready.thenRunAsync(() -> {
+                try {
+                    PackedTemplate.pack(template, packed);
+                } catch (IOException ex) {
+                    //A stale pack must never be unpacked, so fall back to the folder
+                    packed.delete();
+                    throw new CompletionException(ex);
+                }
+            }, this.io);
+        });
+        back.whenComplete((v, ex) -> {
+            if (ex != null) {
+                Debugger.error(ex, "Error repacking arena '%s', instances will be copied from its folder", template.getName());
+            }
+            this.repacks.remove(key, back);
+        });
+    }
+
+    /**
+     * Returns the parsed metadata of a template, parsing its config.yml
+     * again only if it changed since the last call
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The template folder
+     * @return The shared {@link ArenaTemplate} for the template
+     */
+    public ArenaTemplate getTemplate(File template) {
+        return this.metadata.compute(template.getName().toLowerCase(),
+                (k, old) -> old == null || old.isStale(template) ? ArenaTemplate.parse(template) : old);
+    }
+
+    /**
+     * Drops everything derived from a template: its pool and idle
+     * instances, cached hashes and cached files
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The template folder
+     */
+    private void forgetTemplate(File template) {
+        this.metadata.remove(template.getName().toLowerCase());
+        ArenaPool pool = this.pools.remove(template.getName().toLowerCase());
+        if (pool != null) {
+            pool.drain().forEach(a -> this.disposeArena(a, true));
+        }
+        this.diff.invalidate(template);
+        if (this.cache != null) {
+            this.cache.invalidate(template.getName());
+        }
+        if (this.filler != null) {
+            this.filler.invalidate(template.getName());
+        }
+        this.releaseSourceWorld(template);
+    }
+
+    /**
+     * Creates an {@link ArenaPool} for a template folder if its config asks
+     * for pre-loaded instances, and schedules the initial fill
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The template folder to pool
+     */
+    private void initPool(File template) {
+        File conf = new File(template, "config.yml");
+        if (!conf.exists()) {
+            return;
+        }
+        Yaml yaml = new Yaml(conf);
+        int min = Config.retrieve(yaml, ArenaConfig.POOL_MIN).as(int.class);
+        int max = Math.max(min, Config.retrieve(yaml, ArenaConfig.POOL_MAX).as(int.class));
+        if (max <= 0) {
+            return;
+        }
+        ArenaPool pool = new ArenaPool(template, min, max, this.warmer);
+        this.pools.put(template.getName().toLowerCase(), pool);
+        this.scheduleRefill(pool);
+    }
+
+    /**
+     * Starts a refill of an {@link ArenaPool} if it is below its minimum
+     * size. Instances are loaded one at a time, copying on the I/O executor
+     * and loading the world on the main thread, until the pool is full. A
+     * failed refill is retried later, waiting twice as long after each
+     * failure in a row, up to {@link #MAX_REFILL_RETRY} seconds.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param pool The {@link ArenaPool} to refill
+     */
+    private void scheduleRefill(ArenaPool pool) {
+        if (!pool.beginRefill()) {
             return;
         }
-        this.worlds.addAll(Arrays.asList(f));
+        File template = pool.getTemplate();
+        long start = System.nanoTime();
+        this.loadArenaAsync(template).whenComplete((arena, ex) -> {
+            pool.endRefill();
+            if (ex != null) {
+                long delay = Math.min(MAX_REFILL_RETRY, 1L << Math.min(pool.recordFailure() - 1, 16));
+                Debugger.error(ex, "Error pre-loading an instance of arena '%s', retrying in %d seconds", template.getName(), delay);
+                Scheduler.runAsyncTask(() -> {
+                    synchronized (this) {
+                        if (this.pools.get(template.getName().toLowerCase()) != pool) {
+                            //Pool was replaced or removed while waiting
+                            return;
+                        }
+                    }
+                    this.scheduleRefill(pool);
+                }, delay);
+                return;
+            }
+            pool.recordRefill(System.nanoTime() - start);
+            synchronized (this) {
+                if (this.pools.get(template.getName().toLowerCase()) != pool || !pool.offer(arena)) {
+                    //Pool was replaced, removed or filled while this refill was running
+                    this.disposeArena(arena, true);
+                    return;
+                }
+            }
+            this.scheduleRefill(pool);
+        });
+    }
+
+    /**
+     * Returns the {@link ArenaPool} for a template, if one is configured
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param name The name of the {@link Arena}
+     * @return The {@link ArenaPool}, or {@code null} if the arena is not pooled
+     */
+    public synchronized ArenaPool getPool(String name) {
+        return this.pools.get(name.toLowerCase());
+    }
+
+    /**
+     * Returns an unmodifiable view of every configured {@link ArenaPool}
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return A {@link Map} of lowercase arena names to {@link ArenaPool}
+     */
+    public synchronized Map<String, ArenaPool> getPools() {
+        return Collections.unmodifiableMap(new HashMap<>(this.pools));
+    }
+
+    /**
+     * Disposes every idle pooled {@link Arena} and stops the background I/O
+     * and file threads. Should be called when the owning plugin is disabled
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public synchronized void shutdown() {
+        HandlerList.unregisterAll(this.worldListener);
+        Map<String, ArenaPool> copy = new HashMap<>(this.pools);
+        this.pools.clear();
+        copy.values().forEach(p -> p.drain().forEach(a -> {
+            //Idle instances hold no players, and the scheduler is about to stop
+            if (a.getSlot() == null) {
+                this.discardWorld(a.getWorld(), a.getName());
+            }
+            a.dispose();
+        }));
+        if (this.slots != null) {
+            this.slots.clear().forEach(w -> this.discardWorld(w, "shared"));
+        }
+        this.sources.forEach((name, f) -> {
+            if (f.isDone() && !f.isCompletedExceptionally()) {
+                this.discardWorld(f.join(), name);
+            }
+        });
+        this.sources.clear();
+        //Queued steps are cancelled and queued continuations run now, leftover instance folders are reclaimed on the next start
+        this.scheduler.stop();
+        if (this.metricsDump != null) {
+            this.metricsDump.cancel(false);
+            this.dumpMetrics();
+        }
+        this.metrics.unregister();
+        this.catalog.stop();
+        this.io.shutdown();
+        this.files.shutdown();
+    }
+
+    /**
+     * Returns an {@link Arena} instance of a template, taking it from the
+     * template's {@link ArenaPool} where possible
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The template folder to instance
+     * @return A new {@link Arena}
+     * @throws IOException Error copying world to new file
+     */
+    private Arena newArena(File template) throws IOException {
+        long start = System.nanoTime();
+        try {
+            Arena back = this.checkout(template);
+            this.metrics.record(Phase.CHECKOUT, template.getName(), start);
+            return back;
+        } catch (IOException | RuntimeException ex) {
+            this.metrics.fail(Phase.CHECKOUT, template.getName());
+            throw ex;
+        }
+    }
+
+    /**
+     * Takes an {@link Arena} from the template's {@link ArenaPool}, or
+     * creates a new one
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The template folder to instance
+     * @return A new {@link Arena}
+     * @throws IOException Error copying world to new file
+     */
+    private Arena checkout(File template) throws IOException {
+        ArenaPool pool = this.pools.get(template.getName().toLowerCase());
+        if (pool != null) {
+            Arena back = pool.poll();
+            this.scheduleRefill(pool);
+            if (back != null) {
+                return back;
+            }
+        }
+        ArenaTemplate meta = this.getTemplate(template);
+        if (this.isSlotted(meta)) {
+            Arena back = new Arena(this.slots.allocate(meta), template, meta);
+            this.fillSlot(back, false).whenComplete((a, ex) -> {
+                if (ex != null) {
+                    Debugger.error(ex, "Error filling a slot for arena '%s'!", template.getName());
+                }
+            });
+            return back;
+        }
+        Arena back = new Arena(this.loadAnonymousWorld(template), template, meta);
+        this.warm(back);
+        return back;
     }
 
     /**
@@ -111,15 +558,24 @@ public class ArenaFactory {
      * @throws IOException The world failed to be copied correctly
      */
     public synchronized EditSession getEditSession(String arena) throws IOException {
+        File worl = this.getArenaFile(arena);
+        if (worl == null) {
+            return null;
+        }
         EditSession back;
-        if ((back = this.editSessions.get(arena)) != null) {
+        if ((back = this.editSessions.get(worl.getName())) != null) {
             return back;
         }
-        Arena a = this.getArenaExact(arena);
-        if (a == null) {
-            return null;
-        }
+        //Edit sessions are saved, so they never come from a pool or share files with the template
+        Arena a = new Arena(this.createInstanceWorld(this.prepareInstance(worl, true), worl), worl, this.getTemplate(worl));
         EditSession give = new EditSession(a);
+        this.editSessions.put(worl.getName(), give);
+        //Walls are being edited, so sessions are warmed without the load event that protects them
+        this.warmer.warm(give).whenComplete((s, ex) -> {
+            if (ex != null) {
+                Debugger.error(ex, "Error warming up an edit session of arena '%s'!", worl.getName());
+            }
+        });
         return give;
     }
 
@@ -133,13 +589,7 @@ public class ArenaFactory {
      * @return A {@link File} for the arena, or null if not found
      */
     private File getArenaFile(String name) {
-        File worl = null;
-        for (File f : this.worlds) {
-            if (f.getName().equalsIgnoreCase(name)) {
-                worl = f;
-            }
-        }
-        return worl;
+        return this.catalog.get(name);
     }
 
     /**
@@ -158,8 +608,75 @@ public class ArenaFactory {
         if (worl == null) {
             return null;
         } else {
-            return new Arena(this.loadAnonymousWorld(worl), worl);
+            return this.newArena(worl);
+        }
+    }
+
+    /**
+     * Gets a specific {@link Arena} by name without blocking the calling
+     * thread. The world folder is copied on a background thread, and the
+     * {@link World} itself is loaded on the main thread once the copy is done,
+     * and the chunks around its spawns are loaded over the following ticks.
+     * The returned {@link CompletableFuture} is completed on the main thread
+     * once the {@link Arena} is ready.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param name The arena to get
+     * @return A {@link CompletableFuture} of the corresponding arena. If no
+     * arena is found, it will attempt to load a random arena. Completes with
+     * {@code null} if there are no arenas at all.
+     */
+    public CompletableFuture<Arena> getArenaAsync(String name) {
+        File template;
+        BiConsumer<Arena, Throwable> timer;
+        synchronized (this) {
+            template = this.getArenaFile(name);
+            if (template == null) {
+                if (this.catalog.isEmpty()) {
+                    return CompletableFuture.completedFuture(null);
+                }
+                template = this.randomWorldFile();
+            }
+            timer = this.metrics.completion(Phase.CHECKOUT, template.getName());
+            ArenaPool pool = this.pools.get(template.getName().toLowerCase());
+            if (pool != null) {
+                Arena back = pool.poll();
+                this.scheduleRefill(pool);
+                if (back != null) {
+                    timer.accept(back, null);
+                    return CompletableFuture.completedFuture(back);
+                }
+            }
         }
+        return this.loadArenaAsync(template).whenComplete(timer);
+    }
+
+    /**
+     * Copies a template on the I/O executor, then loads it as a new
+     * {@link Arena} on the main thread and warms up its spawn chunks
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The template folder to instance
+     * @return A {@link CompletableFuture} of the new {@link Arena}
+     */
+    private CompletableFuture<Arena> loadArenaAsync(File template) {
+        ArenaTemplate meta = this.getTemplate(template);
+        if (this.isSlotted(meta)) {
+            return CompletableFuture.supplyAsync(() -> new Arena(this.slots.allocate(meta), template, meta), this.mainThread)
+                    .thenCompose(a -> this.fillSlot(a, false));
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return this.prepareInstance(template, false);
+            } catch (IOException ex) {
+                throw new CompletionException(ex);
+            }
+        }, this.io).thenApplyAsync(folder -> new Arena(this.createInstanceWorld(folder, template), template, this.getTemplate(template)), this.mainThread)
+                .thenCompose(this::warm);
     }
 
     /**
@@ -178,7 +695,7 @@ public class ArenaFactory {
         if (worl == null) {
             return this.getRandomArena();
         } else {
-            return new Arena(this.loadAnonymousWorld(worl), worl);
+            return this.newArena(worl);
         }
     }
 
@@ -188,12 +705,12 @@ public class ArenaFactory {
      * @since 1.0.0
      * @version 1.0.0
      *
-     * @return A random {@link Arena}
+     * @return A random {@link Arena}, or {@code null} if there are no arenas
      * @throws IOException Error copying world to new file
      */
     public synchronized Arena getRandomArena() throws IOException {
         File f = this.randomWorldFile();
-        return new Arena(this.loadAnonymousWorld(f), f);
+        return f == null ? null : this.newArena(f);
     }
 
     /**
@@ -205,8 +722,7 @@ public class ArenaFactory {
      * @return The {@link File} object that was selected
      */
     private File randomWorldFile() {
-        Random r = new Random();
-        return this.worlds.get(r.nextInt(this.worlds.size()));
+        return this.catalog.random();
     }
 
     /**
@@ -218,7 +734,7 @@ public class ArenaFactory {
      * @return The {@link List} of world folders
      */
     public List<File> getWorldFolders() {
-        return Collections.unmodifiableList(this.worlds);
+        return this.catalog.getAll();
     }
 
     /**
@@ -232,17 +748,427 @@ public class ArenaFactory {
      * @throws IOException Failure to copy world folder
      */
     private World loadAnonymousWorld(File baseWorld) throws IOException {
+        return this.createInstanceWorld(this.prepareInstance(baseWorld, false), baseWorld);
+    }
+
+    /**
+     * Returns the {@link CloneStrategy} detected for this factory
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The active {@link CloneStrategy}
+     */
+    public CloneStrategy getCloneStrategy() {
+        return this.cloner;
+    }
+
+    /**
+     * Converts an arena template folder into a {@link PackedTemplate}, which
+     * is then used for new instances whenever templates are byte copied. The
+     * folder itself is kept, and remains the copy that is edited.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param name The name of the {@link Arena} to pack
+     * @return The packed template {@link File}, or {@code null} if there is
+     *         no such arena
+     * @throws IOException Failure to write the packed template
+     */
+    public synchronized File packTemplate(String name) throws IOException {
+        File template = this.getArenaFile(name);
+        if (template == null) {
+            return null;
+        }
+        File back = PackedTemplate.locate(template);
+        PackedTemplate.pack(template, back);
+        return back;
+    }
+
+    /**
+     * Returns the {@link WorldReaper} deleting disposed instance folders
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The {@link WorldReaper} for this factory
+     */
+    public WorldReaper getReaper() {
+        return this.reaper;
+    }
+
+    /**
+     * Returns the in-memory template cache used for byte copies
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The {@link TemplateCache}, or {@code null} if
+     *         {@code arena.template-cache-mb} is not set
+     */
+    public TemplateCache getTemplateCache() {
+        return this.cache;
+    }
+
+    /**
+     * Returns the {@link ChunkWarmer} that readies new instances
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The {@link ChunkWarmer} for this factory
+     */
+    public ChunkWarmer getChunkWarmer() {
+        return this.warmer;
+    }
+
+    /**
+     * Returns the {@link ArenaMetrics} that arena lifecycle latencies are
+     * recorded in
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The {@link ArenaMetrics} for this factory
+     */
+    public ArenaMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Writes the current {@link ArenaMetrics} to {@code arena-metrics.tsv} in
+     * the plugin's data folder
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    private void dumpMetrics() {
+        try {
+            this.metrics.dump(new File(this.plugin.getDataFolder(), "arena-metrics.tsv"));
+        } catch (IOException ex) {
+            Debugger.error(ex, "Error writing arena metrics!");
+        }
+    }
+
+    /**
+     * Returns a {@link CloneStrategy} whose clones can be saved safely
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The active {@link CloneStrategy}, or {@link CloneStrategy#COPY}
+     *         if the active one shares files with its source
+     */
+    private CloneStrategy writableCloner() {
+        return this.cloner.isWritable() ? this.cloner : CloneStrategy.COPY;
+    }
+
+    /**
+     * Copies a template into a new, uniquely named folder in the server's
+     * world container. Safe to call from any thread. Writable folders are
+     * not marked for {@link WorldReaper}, so edits that were never saved
+     * survive a restart and can be recovered by hand.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param baseWorld The template {@link File} to copy
+     * @param writable Whether the new world will be saved
+     * @return The name of the new world folder
+     * @throws IOException Failure to copy world folder
+     */
+    private String prepareInstance(File baseWorld, boolean writable) throws IOException {
         if (baseWorld == null || !baseWorld.isDirectory()) {
             throw new IllegalArgumentException();
         }
-        String name = "world_" + System.nanoTime();
-        File newLocation = new File(plugin.getServer().getWorldContainer(), name);
-        while (newLocation.exists()) {
-            name = name + "_";
-            newLocation = new File(plugin.getServer().getWorldContainer(), name);
+        String name;
+        File newLocation;
+        synchronized (this.reservedNames) {
+            name = "world_" + System.nanoTime();
+            newLocation = new File(this.plugin.getServer().getWorldContainer(), name);
+            while (newLocation.exists() || this.reservedNames.contains(name)) {
+                name = name + "_";
+                newLocation = new File(this.plugin.getServer().getWorldContainer(), name);
+            }
+            this.reservedNames.add(name);
+        }
+        long start = System.nanoTime();
+        try {
+            this.reaper.reserve(newLocation);
+            CloneStrategy strategy = writable ? this.writableCloner() : this.cloner;
+            //Links and reflinks are cheaper than any copy, cached or packed
+            if (strategy != CloneStrategy.COPY) {
+                this.files.copy(baseWorld, newLocation, strategy);
+            } else if (this.cache == null || !this.cache.write(baseWorld, newLocation)) {
+                File packed = PackedTemplate.locate(baseWorld);
+                if (packed.isFile() && !this.repacks.containsKey(baseWorld.getName().toLowerCase())) {
+                    PackedTemplate.unpack(packed, newLocation);
+                } else {
+                    this.files.copy(baseWorld, newLocation, strategy);
+                }
+            }
+            if (writable) {
+                this.reaper.release(newLocation);
+            } else {
+                this.reaper.mark(newLocation);
+            }
+            this.metrics.record(Phase.COPY, baseWorld.getName(), start);
+        } catch (IOException | RuntimeException ex) {
+            this.metrics.fail(Phase.COPY, baseWorld.getName());
+            if (newLocation.isDirectory()) {
+                this.files.delete(newLocation);
+            }
+            this.reaper.release(newLocation);
+            throw ex;
+        } finally {
+            synchronized (this.reservedNames) {
+                this.reservedNames.remove(name);
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Loads a previously copied instance folder as a {@link World}. Must be
+     * called on the main thread.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param name The name of the world folder to load
+     * @param template The template the folder was copied from
+     * @return A new {@link World} instance
+     */
+    private World createInstanceWorld(String name, File template) {
+        long start = System.nanoTime();
+        ArenaTemplate meta = this.getTemplate(template);
+        this.creating.put(name, meta);
+        World back;
+        try {
+            back = WorldCreator.name(name).environment(World.Environment.NORMAL).generator(this.gen).createWorld();
+        } finally {
+            this.creating.remove(name);
+        }
+        if (back == null) {
+            this.metrics.fail(Phase.CREATE_WORLD, template.getName());
+            throw new IllegalStateException("Unable to load world " + name);
+        }
+        this.metrics.record(Phase.CREATE_WORLD, template.getName(), start);
+        Location spawn = meta.bindWorldSpawn(back);
+        if (spawn != null) {
+            //Copied worlds keep the spawn from their level.dat, and never ask the generator
+            back.setSpawnLocation(spawn.getBlockX(), spawn.getBlockY(), spawn.getBlockZ());
+        }
+        if (!this.cloner.isWritable()) {
+            //Region files may be shared with the template
+            back.setAutoSave(false);
+        }
+        return back;
+    }
+
+    /**
+     * Returns the spawn of an instance world while it is being created, for
+     * {@link VoidGenerator#getFixedSpawnLocation(World, java.util.Random)}
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param world The {@link World} being created
+     * @return The spawn from the template's metadata, or {@code null}
+     */
+    private Location instanceSpawn(World world) {
+        ArenaTemplate meta = this.creating.get(world.getName());
+        return meta == null ? null : meta.bindWorldSpawn(world);
+    }
+
+    /**
+     * Returns whether instances of a template are placed in shared worlds
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param meta The parsed metadata of the template
+     * @return {@code true} if slots are enabled and the template fits in one
+     */
+    private boolean isSlotted(ArenaTemplate meta) {
+        return this.slots != null && this.slots.fits(meta);
+    }
+
+    /**
+     * Fills the slot of a new slotted {@link Arena} and warms it up. If
+     * either step fails, the {@link Arena} is disposed on the main thread.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param arena The slotted {@link Arena} to fill
+     * @param reset Whether the slot still holds a previous instance of the
+     *              same template, rather than being empty
+     * @return A {@link CompletableFuture} of the ready {@link Arena}
+     */
+    private CompletableFuture<Arena> fillSlot(Arena arena, boolean reset) {
+        CompletableFuture<Arena> back = new CompletableFuture<>();
+        ArenaSlot slot = arena.getSlot();
+        (reset ? this.filler.reset(slot, arena.getOriginalLocation(), arena.getTemplate())
+                : this.filler.fill(slot, arena.getOriginalLocation(), arena.getTemplate()))
+                .whenComplete(this.metrics.completion(Phase.SLOT_FILL, arena.getName())).thenCompose(v -> this.warm(arena)).whenComplete((a, ex) -> {
+            if (ex == null) {
+                back.complete(a);
+                return;
+            }
+            this.mainThread.execute(() -> {
+                if (arena.getWorld() != null) {
+                    this.disposeArena(arena, true);
+                }
+                back.completeExceptionally(ex);
+            });
+        });
+        return back;
+    }
+
+    /**
+     * Resets a slotted {@link Arena} in its own cell through the
+     * {@link SlotFiller}. If the template changed in the meantime, the cell
+     * is cleared and released instead, and the template is free to pick a
+     * new cell, or a world of its own.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param arena The slotted {@link Arena} to reset
+     * @return A {@link CompletableFuture} of the reset {@link Arena}
+     */
+    private CompletableFuture<Arena> resetSlot(Arena arena) {
+        File template = arena.getOriginalLocation();
+        ArenaSlot slot = arena.getSlot();
+        ArenaTemplate meta = arena.getTemplate();
+        synchronized (this) {
+            this.evacuate(arena);
+            arena.dispose();
+        }
+        if (this.getTemplate(template) == meta) {
+            return this.fillSlot(new Arena(slot, template, meta), true);
+        }
+        return this.filler.clear(slot, meta).whenComplete(this.metrics.completion(Phase.SLOT_CLEAR, meta.getName()))
+                .thenCompose(v -> {
+            this.slots.release(slot);
+            return this.loadArenaAsync(template);
+        });
+    }
+
+    /**
+     * Creates one of the shared void worlds that slots are handed out in.
+     * Must be called on the main thread.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param number The number of the shared world
+     * @return A new, empty {@link World}
+     */
+    private World createSlotWorld(int number) {
+        World back = WorldCreator.name("minigame_slots_" + number).environment(World.Environment.NORMAL)
+                .generator(this.gen).generateStructures(false).createWorld();
+        back.setAutoSave(false);
+        try {
+            //Shared worlds are rebuilt on every start, so reclaim them like instances
+            this.reaper.mark(back.getWorldFolder());
+        } catch (IOException ex) {
+            Debugger.error(ex, "Unable to mark shared world %s for cleanup", back.getName());
+        }
+        return back;
+    }
+
+    /**
+     * Returns a loaded, read-only copy of a template for slots to be filled
+     * from, loading one if needed. Must be called on the main thread.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The template folder
+     * @return A {@link CompletableFuture} of the source {@link World},
+     *         completed on the main thread
+     */
+    private synchronized CompletableFuture<World> loadSourceWorld(File template) {
+        String key = template.getName().toLowerCase();
+        CompletableFuture<World> back = this.sources.get(key);
+        if (back == null || back.isCompletedExceptionally()) {
+            back = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return this.prepareInstance(template, false);
+                } catch (IOException ex) {
+                    throw new CompletionException(ex);
+                }
+            }, this.io).thenApplyAsync(name -> {
+                World w = this.createInstanceWorld(name, template);
+                w.setAutoSave(false);
+                return w;
+            }, this.mainThread);
+            this.sources.put(key, back);
+        }
+        return back;
+    }
+
+    /**
+     * Discards the loaded source copy of a template, if there is one. The
+     * next slot fill that needs it loads a fresh copy.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The template folder
+     */
+    private synchronized void releaseSourceWorld(File template) {
+        CompletableFuture<World> source = this.sources.remove(template.getName().toLowerCase());
+        if (source != null) {
+            source.thenAcceptAsync(w -> this.discardWorld(w, template.getName()), this.mainThread);
+        }
+    }
+
+    /**
+     * Unloads a world owned by this factory without saving, and deletes its
+     * folder in the background
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param world The {@link World} to discard
+     * @param template The template the world belongs to, or a label for
+     *                 worlds shared between templates
+     */
+    private void discardWorld(World world, String template) {
+        File folder = world.getWorldFolder();
+        this.unloadWorld(world, false, template);
+        if (this.plugin.getServer().getWorld(world.getUID()) == null) {
+            this.reaper.reap(folder, template);
         }
-        this.copyDirectory(baseWorld, newLocation);
-        return WorldCreator.name(name).environment(World.Environment.NORMAL).generator(this.gen).createWorld();
+    }
+
+    /**
+     * Returns the {@link SlotAllocator} placing arenas in shared worlds
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The {@link SlotAllocator}, or {@code null} if
+     *         {@code arena.slots.enabled} is not set
+     */
+    public SlotAllocator getSlotAllocator() {
+        return this.slots;
+    }
+
+    /**
+     * Returns the {@link SlotFiller} copying templates into slots
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The {@link SlotFiller}, or {@code null} if slots are off
+     */
+    public SlotFiller getSlotFiller() {
+        return this.filler;
     }
 
     /**
@@ -253,98 +1179,186 @@ public class ArenaFactory {
      *
      * @param baseWorld The {@link World} to unload
      * @param save Whether or not to save chunks
-     * @throws IOException
+     * @param template The template the world belongs to
      */
-    private void unloadWorld(World baseWorld, boolean save) {
+    private void unloadWorld(World baseWorld, boolean save, String template) {
         if (baseWorld == null) {
             throw new IllegalArgumentException();
         }
+        long start = System.nanoTime();
         boolean success = this.plugin.getServer().unloadWorld(baseWorld, save);
         if (!success) {
+            this.metrics.fail(Phase.UNLOAD_WORLD, template);
             Debugger.error(new RuntimeException(), "Failed to unload world %s!", baseWorld.getName());
+        } else {
+            this.metrics.record(Phase.UNLOAD_WORLD, template, start);
         }
     }
 
+    private void teleportPlayerOutOfArena(Player p) {
+        //LobbyManager lm = this.plugin.getLobbyManager().backToLobby(p);
+    }
+
     /**
-     * Copies a directory from one file location to another
+     * Warms up a new {@link Arena}, then notifies listeners that it is ready
+     * through an {@link ArenaLoadEvent}
      *
      * @since 1.0.0
      * @version 1.0.0
      *
-     * @param source The source directory to copy
-     * @param destination The destination of the directory copy
-     * @throws IOException Failure to copy the entire directory
+     * @param arena The new {@link Arena}
+     * @return A {@link CompletableFuture} of the ready {@link Arena},
+     *         completed on the main thread
      */
-    private void copyDirectory(File source, File destination) throws IOException {
-        if (!source.isDirectory()) {
-            throw new IllegalArgumentException("Source (" + source.getPath() + ") must be a directory.");
-        }
+    private CompletableFuture<Arena> warm(Arena arena) {
+        return this.warmer.warm(arena).thenApply(a -> {
+            this.plugin.getServer().getPluginManager().callEvent(new ArenaLoadEvent(a));
+            return a;
+        });
+    }
 
-        if (!source.exists()) {
-            throw new IllegalArgumentException("Source directory (" + source.getPath() + ") doesn't exist.");
-        }
+    /**
+     * Notifies listeners that an {@link Arena} is going away, and moves any
+     * players out of it
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param arena The {@link Arena} being disposed
+     */
+    private void evacuate(Arena arena) {
+        ArenaPreDisposeEvent event = new ArenaPreDisposeEvent(arena);
+        this.plugin.getServer().getPluginManager().callEvent(event);
+        ArenaSlot slot = arena.getSlot();
+        Executor players = this.scheduler.executor(Priority.PLAYER);
+        arena.getWorld().getPlayers().stream().filter(p -> slot == null || slot.contains(p.getLocation())).forEach((p) -> {
+            players.execute(() -> {
+                Lang.sendMessage(p, MinigameLang.ARENA_FACTORY_UNLOAD);
+                this.teleportPlayerOutOfArena(p);
+            });
+        });
+    }
 
-        if (destination.exists()) {
-            throw new IllegalArgumentException("Destination (" + destination.getPath() + ") exists.");
+    /**
+     * Resets an {@link Arena} in place for another game. The world is
+     * unloaded without saving, only the files that differ from the template
+     * are restored (compared by size, modification time and content hash),
+     * and the same world folder is loaded again. The restore runs on the I/O
+     * executor, and the returned {@link CompletableFuture} is completed on
+     * the main thread.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param arena The {@link Arena} to reset. It is disposed by this call,
+     *              and the returned {@link Arena} should be used instead
+     * @return A {@link CompletableFuture} of the reloaded {@link Arena}
+     */
+    public CompletableFuture<Arena> resetArena(Arena arena) {
+        if (arena == null) {
+            throw new IllegalArgumentException("Arena cannot be null!");
         }
-        destination.mkdirs();
-        for (File file : source.listFiles()) {
-            if (file.isDirectory()) {
-                this.copyDirectory(file, new File(destination, file.getName()));
-            } else {
-                this.copyFile(file, new File(destination, file.getName()));
-            }
+        if (arena instanceof EditSession) {
+            throw new IllegalArgumentException("Edit sessions cannot be reset!");
         }
+        BiConsumer<Arena, Throwable> timer = this.metrics.completion(Phase.RESET, arena.getName());
+        if (arena.getSlot() != null) {
+            return this.resetSlot(arena).whenComplete(timer);
+        }
+        File template = arena.getOriginalLocation();
+        File folder = arena.getWorldFolder();
+        String name = arena.getRawName();
+        World world = arena.getWorld();
+        synchronized (this) {
+            this.evacuate(arena);
+            arena.dispose();
+        }
+        //Evacuations are queued ahead of provisioning work, so players are out by now
+        return CompletableFuture.supplyAsync(() -> {
+            this.unloadWorld(world, false, template.getName());
+            if (this.plugin.getServer().getWorld(world.getUID()) != null) {
+                throw new IllegalStateException("Unable to unload world " + name);
+            }
+            return name;
+        }, this.mainThread).thenApplyAsync(n -> {
+            try {
+                this.restoreInstance(template, folder);
+            } catch (IOException ex) {
+                throw new CompletionException(ex);
+            }
+            return n;
+        }, this.io).thenApplyAsync(n -> new Arena(this.createInstanceWorld(n, template), template, this.getTemplate(template)), this.mainThread)
+                .thenCompose(this::warm).whenComplete(timer);
     }
 
     /**
-     * Deletes an entire directory recursively
+     * Returns an {@link Arena} that is no longer needed. If its template is
+     * pooled and the pool has room, the {@link Arena} is reset in place and
+     * returned to the pool; otherwise it is disposed and its folder deleted.
      *
      * @since 1.0.0
      * @version 1.0.0
      *
-     * @param folder The source {@link File} directory to delete
+     * @param arena The {@link Arena} to recycle
      */
-    private void deleteDirectory(File folder) {
-        if (!folder.isDirectory()) {
-            throw new IllegalArgumentException("Source (" + folder.getPath() + ") must be a directory");
+    public synchronized void recycleArena(Arena arena) {
+        if (arena == null) {
+            throw new IllegalArgumentException("Arena cannot be null!");
         }
-        for (File f : folder.listFiles()) {
-            if (f.isDirectory()) {
-                this.deleteDirectory(f);
-                f.delete();
-            }
-            f.delete();
+        ArenaPool pool = arena instanceof EditSession ? null : this.pools.get(arena.getName().toLowerCase());
+        if (pool == null || pool.size() >= pool.getMaxSize()) {
+            this.disposeArena(arena, true);
+            return;
         }
-        folder.delete();
+        File template = arena.getOriginalLocation();
+        this.resetArena(arena).whenComplete((reset, ex) -> {
+            if (ex != null) {
+                Debugger.error(ex, "Error resetting an instance of arena '%s'!", template.getName());
+                return;
+            }
+            synchronized (this) {
+                if (this.pools.get(template.getName().toLowerCase()) != pool || !pool.offer(reset)) {
+                    this.disposeArena(reset, true);
+                }
+            }
+        });
     }
 
     /**
-     * Copies a single {@link File} from one location to another
+     * Restores the files of an unloaded instance folder that differ from its
+     * template, and deletes files the template does not have
      *
      * @since 1.0.0
      * @version 1.0.0
      *
-     * @param source The source {@link File}
-     * @param destination The destination of the {@link File} copy
-     * @throws FileNotFoundException Source file does not exist
-     * @throws IOException Error closing {@link FileChannel} streams
+     * @param template The template folder
+     * @param folder The instance folder to restore
+     * @return The number of bytes restored
+     * @throws IOException Failure to restore a file
      */
-    private void copyFile(File source, File destination) throws FileNotFoundException, IOException {
-        try (FileChannel sourceChannel = new FileInputStream(source).getChannel();
-                FileChannel targetChannel = new FileOutputStream(destination).getChannel()) {
-            sourceChannel.transferTo(0, sourceChannel.size(), targetChannel);
+    private long restoreInstance(File template, File folder) throws IOException {
+        WorldDiff.Result result = this.diff.compare(template, folder);
+        for (String path : result.getExtra()) {
+            if (!path.equals(WorldReaper.MARKER)) {
+                new File(folder, path).delete();
+            }
         }
-    }
-
-    private void teleportPlayerOutOfArena(Player p) {
-        //LobbyManager lm = this.plugin.getLobbyManager().backToLobby(p);
+        for (String path : result.getChanged()) {
+            File target = new File(folder, path);
+            //Never write through an existing file, it may be linked to the template
+            target.delete();
+            target.getParentFile().mkdirs();
+            this.cloner.cloneFile(new File(template, path), target);
+        }
+        return result.getBytes();
     }
 
     /**
      * Disposes an {@link Arena} and deletes the relevant world. Will save and
      * override previous {@link Arena} objects if the {@link Arena} is an
-     * {@link EditSession}
+     * {@link EditSession}, see {@link #saveEditSession(EditSession, boolean)}.
+     * Players are moved out first, and the world is unloaded later as cleanup
+     * work on the {@link TickScheduler}.
      *
      * @since 1.0.0
      * @version 1.0.0
@@ -356,77 +1370,289 @@ public class ArenaFactory {
         if (arena == null) {
             throw new IllegalArgumentException("Arena cannot be null!");
         }
-        boolean isEdit = arena instanceof EditSession;
-        if (isEdit) {
-            EditSession sess = (EditSession) arena;
-            this.editSessions.remove(sess.getName());
+        if (arena instanceof EditSession) {
+            this.saveEditSession((EditSession) arena, delete);
+            return;
         }
-        ArenaPreDisposeEvent event = new ArenaPreDisposeEvent(arena);
-        this.plugin.getServer().getPluginManager().callEvent(event);
-        arena.getWorld().getPlayers().stream().forEach((p) -> {
-            Lang.sendMessage(p, MinigameLang.ARENA_FACTORY_UNLOAD);
-            this.teleportPlayerOutOfArena(p);
+        long start = System.nanoTime();
+        String template = arena.getName();
+        if (arena.getSlot() != null) {
+            this.evacuate(arena);
+            ArenaSlot slot = arena.getSlot();
+            ArenaTemplate meta = arena.getTemplate();
+            arena.dispose();
+            this.filler.clear(slot, meta).whenComplete(this.metrics.completion(Phase.SLOT_CLEAR, template)).whenComplete((v, ex) -> {
+                if (ex != null) {
+                    this.metrics.fail(Phase.DISPOSE, template);
+                    //Leave the cell reserved rather than hand out a dirty one
+                    Debugger.error(ex, "Error clearing arena slot %s!", slot);
+                } else {
+                    this.slots.release(slot);
+                    this.metrics.record(Phase.DISPOSE, template, start);
+                }
+            });
+            return;
+        }
+        this.evacuate(arena);
+        World world = arena.getWorld();
+        File worldDir = world.getWorldFolder();
+        arena.dispose();
+        this.scheduler.executor(Priority.CLEANUP).execute(() -> {
+            this.unloadWorld(world, false, template);
+            if (this.plugin.getServer().getWorld(world.getUID()) != null) {
+                this.metrics.fail(Phase.DISPOSE, template);
+                return;
+            }
+            if (delete) {
+                this.reaper.reap(worldDir, template);
+            }
+            this.metrics.record(Phase.DISPOSE, template, start);
         });
-        this.unloadWorld(arena.getWorld(), isEdit);
-        if (isEdit) {
-            ((EditSession) arena).writeConfigValues();
+    }
+
+    /**
+     * Disposes an {@link EditSession} and saves its world over the original
+     * template. Only files changed during the session are copied; unchanged
+     * files are linked from the current template into a staging folder,
+     * which then replaces the template through a rename. The previous
+     * template is kept until the swap succeeds. The copy runs on the I/O
+     * executor, and the returned {@link CompletableFuture} is completed on
+     * the main thread.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param session The {@link EditSession} to save
+     * @param delete Whether or not to delete the session's {@link World}
+     *               folder once it has been saved
+     * @return A {@link CompletableFuture} of the number of bytes written
+     */
+    public synchronized CompletableFuture<Long> saveEditSession(EditSession session, boolean delete) {
+        if (session == null) {
+            throw new IllegalArgumentException("EditSession cannot be null!");
+        }
+        this.editSessions.remove(session.getName());
+        this.evacuate(session);
+        World world = session.getWorld();
+        String name = session.getName();
+        File template = session.getOriginalLocation();
+        File folder = session.getWorldFolder();
+        long start = System.nanoTime();
+        return CompletableFuture.runAsync(() -> {
+            this.unloadWorld(world, true, name);
+            if (this.plugin.getServer().getWorld(world.getUID()) != null) {
+                session.dispose();
+                throw new IllegalStateException("Unable to unload world " + world.getName());
+            }
+            session.writeConfigValues();
             try {
-                arena.getConfig().save();
+                session.getConfig().save();
             } catch (IOException ex) {
-                Debugger.error(ex, "Error saving config for arena '%s'!", arena.getName());
-            }
-            this.deleteDirectory(arena.getOriginalLocation());
-            File uid = new File(arena.getWorldFolder(), "uid.dat");
-            if (uid.exists()) {
-                uid.delete();
+                Debugger.error(ex, "Error saving config for arena '%s'!", name);
             }
+            session.dispose();
+        }, this.mainThread).thenApplyAsync(v -> {
+            //Marks the pack stale before the template is replaced
+            CompletableFuture<Void> saved = new CompletableFuture<>();
+            this.repack(template, saved);
             try {
-                this.copyDirectory(arena.getWorldFolder(), arena.getOriginalLocation());
+                return this.saveTemplate(folder, template);
             } catch (IOException ex) {
-                Debugger.error(ex, "Error saving edited world!");
+                throw new CompletionException(ex);
+            } finally {
+                saved.complete(null);
+            }
+        }, this.io).whenCompleteAsync((bytes, ex) -> {
+            if (ex != null) {
+                //The edited folder is kept, so the changes can be recovered by hand
+                this.metrics.fail(Phase.SAVE, name);
+                Debugger.error(ex, "Error saving edited world for arena '%s', the edits are kept in '%s'!", name, folder.getPath());
+                return;
             }
+            this.metrics.record(Phase.SAVE, name, start);
+            this.plugin.getLogger().info("Saved arena '" + name + "' (" + bytes + " bytes written)");
+            this.reloadTemplate(template);
+            if (delete) {
+                this.reaper.reap(folder, name);
+            }
+        }, this.mainThread);
+    }
+
+    /**
+     * Writes an edited world folder over its template, copying only the
+     * files that differ and swapping the result in with a rename
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param folder The edited world folder
+     * @param template The template folder to replace
+     * @return The number of bytes copied from the edited folder
+     * @throws IOException Failure to stage or swap in the new template
+     */
+    private long saveTemplate(File folder, File template) throws IOException {
+        WorldDiff.Result result = this.diff.compare(template, folder);
+        Set<String> changed = new HashSet<>(result.getChanged());
+        changed.addAll(result.getExtra());
+        File parent = template.getParentFile();
+        File staging = new File(parent, "." + template.getName() + ".staging");
+        if (staging.exists()) {
+            this.files.delete(staging);
         }
-        File worldDir = arena.getWorld().getWorldFolder();
-        if (this.plugin.getServer().getWorld(arena.getWorld().getUID()) != null) {
-            this.unloadWorld(arena.getWorld(), false);
+        long bytes = 0;
+        try {
+            Path root = folder.toPath();
+            List<Path> entries;
+            try (Stream<Path> walk = Files.walk(root)) {
+                entries = walk.filter(p -> !p.equals(root)).collect(Collectors.toList());
+            }
+            for (Path p : entries) {
+                String path = root.relativize(p).toString();
+                File target = new File(staging, path);
+                if (Files.isDirectory(p)) {
+                    target.mkdirs();
+                    continue;
+                }
+                if (path.equals("uid.dat") || path.equals(WorldReaper.MARKER)) {
+                    continue;
+                }
+                target.getParentFile().mkdirs();
+                if (changed.contains(path)) {
+                    CloneStrategy.COPY.cloneFile(p.toFile(), target);
+                    bytes += target.length();
+                } else {
+                    try {
+                        //Templates are never loaded, so sharing their files is safe
+                        Files.createLink(target.toPath(), new File(template, path).toPath());
+                    } catch (IOException | UnsupportedOperationException ex) {
+                        CloneStrategy.COPY.cloneFile(new File(template, path), target);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            if (staging.exists()) {
+                this.files.delete(staging);
+            }
+            throw ex;
         }
-        arena.dispose();
-        if (delete) {
-            this.deleteDirectory(worldDir);
+        File old = new File(parent, "." + template.getName() + ".old-" + System.nanoTime());
+        Files.move(template.toPath(), old.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        try {
+            Files.move(staging.toPath(), template.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            Files.move(old.toPath(), template.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            throw ex;
         }
+        this.reaper.reap(old, template.getName());
+        return bytes;
     }
 
     public List<File> getAvailableArenas() {
-        return Collections.unmodifiableList(this.worlds);
+        return this.catalog.getAll();
     }
 
     /**
-     * Creates a new {@link Arena} from an {@link ArenaBuilder} object
+     * Creates a new {@link Arena} from an {@link ArenaBuilder} object. The
+     * world is saved as provisioning work on the {@link TickScheduler}, and
+     * copied into a hidden staging folder on the I/O executor, which is then
+     * renamed into place so the template never appears half-copied.
      *
      * @since 1.0.0
      * @version 1.0.0
      *
-     * @param build The {2link ArenaBuilder} to parse
+     * @param build The {@link ArenaBuilder} to parse
+     * @return A {@link CompletableFuture} of the new template folder,
+     *         completed on the main thread, or exceptionally if copying the
+     *         world files fails
      * @throws UnfinishedException If the {@link ArenaBuilder} is not fully
      *                             configured
-     * @throws IOException If copying the world files fails
      * @throws NameInUseException If an arena already exists with this name
      */
-    public synchronized void handleBuild(ArenaBuilder build) throws UnfinishedException, IOException, NameInUseException {
+    public synchronized CompletableFuture<File> handleBuild(ArenaBuilder build) throws UnfinishedException, NameInUseException {
         if (build == null) {
             throw new IllegalArgumentException("ArenaBuilder cannot be null!");
         }
         build.canBuild();
-        build.getWorld().save();
-        File f = new File(this.worldFolder, build.getName());
-        if (f.exists()) {
-            throw new NameInUseException("This arena name (" + build.getName() + ") is already in use!");
-        }
-        new File(build.getWorld().getWorldFolder(), "uid.dat").delete();
-        this.copyDirectory(build.getWorld().getWorldFolder(), f);
-        this.worlds.add(f);
-        File conf = new File(f, "config.yml");
-        conf.createNewFile();
-        Config.retrieve(new Yaml(conf), ArenaConfig.EDIT_SPAWN).set(new SLocation(build.getSpawn())).save();
+        String name = build.getName();
+        File f = new File(this.worldFolder, name);
+        if (f.exists() || !this.building.add(name.toLowerCase())) {
+            throw new NameInUseException("This arena name (" + name + ") is already in use!");
+        }
+        World world = build.getWorld();
+        SLocation spawn = new SLocation(build.getSpawn());
+        File staging = new File(this.worldFolder, "." + name + ".build");
+        CompletableFuture<File> back = CompletableFuture.runAsync(world::save, this.mainThread).thenApplyAsync(v -> {
+            try {
+                if (staging.exists()) {
+                    this.files.delete(staging);
+                }
+                new File(world.getWorldFolder(), "uid.dat").delete();
+                this.files.copy(world.getWorldFolder(), staging, this.writableCloner());
+                File conf = new File(staging, "config.yml");
+                conf.createNewFile();
+                Config.retrieve(new Yaml(conf), ArenaConfig.EDIT_SPAWN).set(spawn).save();
+                Files.move(staging.toPath(), f.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                return f;
+            } catch (IOException ex) {
+                if (staging.exists()) {
+                    this.files.delete(staging);
+                }
+                throw new CompletionException(ex);
+            }
+        }, this.io).thenApplyAsync(folder -> {
+            synchronized (this) {
+                this.catalog.add(folder);
+                this.initPool(folder);
+            }
+            return folder;
+        }, this.mainThread);
+        back.whenComplete((folder, ex) -> {
+            synchronized (this) {
+                this.building.remove(name.toLowerCase());
+            }
+        });
+        return back;
+    }
+
+    /**
+     * Returns the {@link TickScheduler} running this factory's main thread
+     * work
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The {@link TickScheduler} for this factory
+     */
+    public TickScheduler getScheduler() {
+        return this.scheduler;
+    }
+
+    /**
+     * Turns off spawn chunk keep-alive for worlds using the factory's
+     * generator before the server prepares their spawn area, so creating an
+     * arena world does not load the chunks around its spawn. Also keeps the
+     * server from unloading the warmed chunks of idle pooled arenas.
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    private class WorldListener implements Listener {
+
+        @EventHandler
+        public void onInit(WorldInitEvent event) {
+            if (event.getWorld().getGenerator() == ArenaFactory.this.gen) {
+                event.getWorld().setKeepSpawnInMemory(false);
+            }
+        }
+
+        @EventHandler(ignoreCancelled = true)
+        public void onUnload(ChunkUnloadEvent event) {
+            Chunk chunk = event.getChunk();
+            if (ArenaFactory.this.warmer.isPinned(chunk.getWorld(), chunk.getX(), chunk.getZ())) {
+                event.setCancelled(true);
+            }
+        }
+
     }
 }
@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.arena;
+
+import com.codelanx.codelanxlib.util.Debugger;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Latency histograms and failure counters for each phase of the arena
+ * lifecycle, kept per template. Recording is lock-free and safe from any
+ * thread. The metrics can be registered with JMX and written out to a
+ * tab-separated file.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class ArenaMetrics implements ArenaMetricsMXBean {
+
+    /**
+     * A timed phase of the arena lifecycle
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    public static enum Phase {
+        /** From asking the factory for an arena until it is ready */
+        CHECKOUT,
+        /** Cloning a template into an instance folder */
+        COPY,
+        /** Loading an instance folder as a world */
+        CREATE_WORLD,
+        /** Unloading a world */
+        UNLOAD_WORLD,
+        /** From disposing an arena until its world or slot is gone */
+        DISPOSE,
+        /** Deleting a folder in the background */
+        DELETE,
+        /** From resetting an arena until the new instance is ready */
+        RESET,
+        /** Loading the chunks around an arena's spawns */
+        WARMUP,
+        /** Filling a slot of a shared world */
+        SLOT_FILL,
+        /** Clearing a slot of a shared world */
+        SLOT_CLEAR,
+        /** Saving an edit session over its template */
+        SAVE;
+    }
+
+    /** Histograms by template name, one per {@link Phase} */
+    private final Map<String, LatencyHistogram[]> histograms = new ConcurrentHashMap<>();
+    /** Failure counters by template name, one per {@link Phase} */
+    private final Map<String, AtomicLong[]> failures = new ConcurrentHashMap<>();
+    /** The name this is registered under with JMX, if registered */
+    private ObjectName registered;
+
+    /**
+     * Records how long a phase took
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param phase The {@link Phase} that finished
+     * @param template The name of the template
+     * @param start The {@link System#nanoTime()} the phase started at
+     */
+    public void record(Phase phase, String template, long start) {
+        this.histograms(template)[phase.ordinal()].record(System.nanoTime() - start);
+    }
+
+    /**
+     * Counts a failed phase
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param phase The {@link Phase} that failed
+     * @param template The name of the template
+     */
+    public void fail(Phase phase, String template) {
+        this.histograms(template);
+        this.failures.computeIfAbsent(template.toLowerCase(), k -> ArenaMetrics.counters())[phase.ordinal()].incrementAndGet();
+    }
+
+    /**
+     * Returns a callback for {@link java.util.concurrent.CompletableFuture}
+     * that records the phase's time on success, or a failure otherwise
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param <T> The result type of the future
+     * @param phase The {@link Phase} being timed
+     * @param template The name of the template
+     * @return A callback for {@code whenComplete}
+     */
+    public <T> BiConsumer<T, Throwable> completion(Phase phase, String template) {
+        long start = System.nanoTime();
+        return (result, ex) -> {
+            if (ex == null) {
+                this.record(phase, template, start);
+            } else {
+                this.fail(phase, template);
+            }
+        };
+    }
+
+    /**
+     * Returns the histogram of one phase of one template
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param phase The {@link Phase} to look up
+     * @param template The name of the template
+     * @return The {@link LatencyHistogram}, or {@code null} if nothing was
+     *         recorded for the template
+     */
+    public LatencyHistogram getHistogram(Phase phase, String template) {
+        LatencyHistogram[] back = this.histograms.get(template.toLowerCase());
+        return back == null ? null : back[phase.ordinal()];
+    }
+
+    @Override
+    public List<Stats> getStats() {
+        List<Stats> back = new ArrayList<>();
+        Phase[] phases = Phase.values();
+        for (Map.Entry<String, LatencyHistogram[]> e : new TreeMap<>(this.histograms).entrySet()) {
+            AtomicLong[] failed = this.failures.get(e.getKey());
+            for (Phase p : phases) {
+                LatencyHistogram h = e.getValue()[p.ordinal()];
+                long fails = failed == null ? 0 : failed[p.ordinal()].get();
+                if (h.getCount() == 0 && fails == 0) {
+                    continue;
+                }
+                back.add(new Stats(e.getKey(), p.name(), h.getCount(), fails, h.getMean() / 1e6,
+                        h.getPercentile(0.5) / 1e6, h.getPercentile(0.9) / 1e6, h.getPercentile(0.99) / 1e6,
+                        h.getPercentile(0.999) / 1e6, h.getMax() / 1e6));
+            }
+        }
+        return back;
+    }
+
+    @Override
+    public String[] getTemplates() {
+        return new TreeMap<>(this.histograms).keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public void reset() {
+        this.histograms.clear();
+        this.failures.clear();
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param name The name to register under, such as the plugin's name
+     */
+    public synchronized void register(String name) {
+        if (this.registered != null) {
+            return;
+        }
+        try {
+            ObjectName id = new ObjectName("com.codelanx.minigamelib:type=ArenaMetrics,name=" + ObjectName.quote(name));
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(id)) {
+                //Left behind by a reload
+                server.unregisterMBean(id);
+            }
+            server.registerMBean(this, id);
+            this.registered = id;
+        } catch (JMException ex) {
+            Debugger.error(ex, "Unable to register arena metrics with JMX");
+        }
+    }
+
+    /**
+     * Removes these metrics from the platform MBean server
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public synchronized void unregister() {
+        if (this.registered == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.registered);
+        } catch (JMException ex) {
+            Debugger.error(ex, "Unable to unregister arena metrics from JMX");
+        }
+        this.registered = null;
+    }
+
+    /**
+     * Writes a summary of every phase of every template to a tab-separated
+     * file, replacing it atomically
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param file The {@link File} to write
+     * @throws IOException If the file could not be written
+     */
+    public void dump(File file) throws IOException {
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(temp.toPath(), StandardCharsets.UTF_8))) {
+            out.println("# Arena lifecycle latencies in milliseconds, written " + Instant.now());
+            out.println("template\tphase\tcount\tfailures\tmean\tp50\tp90\tp99\tp99.9\tmax");
+            for (Stats s : this.getStats()) {
+                out.printf("%s\t%s\t%d\t%d\t%.3f\t%.3f\t%.3f\t%.3f\t%.3f\t%.3f%n", s.getTemplate(), s.getPhase(),
+                        s.getCount(), s.getFailures(), s.getMean(), s.getP50(), s.getP90(), s.getP99(), s.getP999(), s.getMax());
+            }
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private LatencyHistogram[] histograms(String template) {
+        return this.histograms.computeIfAbsent(template.toLowerCase(), k -> {
+            LatencyHistogram[] back = new LatencyHistogram[Phase.values().length];
+            for (int i = 0; i < back.length; i++) {
+                back[i] = new LatencyHistogram();
+            }
+            return back;
+        });
+    }
+
+    private static AtomicLong[] counters() {
+        AtomicLong[] back = new AtomicLong[Phase.values().length];
+        for (int i = 0; i < back.length; i++) {
+            back[i] = new AtomicLong();
+        }
+        return back;
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.arena;
+
+import java.beans.ConstructorProperties;
+import java.util.List;
+
+/**
+ * The JMX view of {@link ArenaMetrics}
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public interface ArenaMetricsMXBean {
+
+    /**
+     * Returns a summary of every recorded phase of every template
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return A {@link List} of {@link Stats}, sorted by template and phase
+     */
+    public List<Stats> getStats();
+
+    /**
+     * Returns the names of the templates with recorded metrics
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The template names
+     */
+    public String[] getTemplates();
+
+    /**
+     * Clears every recorded value
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void reset();
+
+    /**
+     * A summary of one lifecycle phase of one template. Times are in
+     * milliseconds.
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    public static final class Stats {
+
+        private final String template;
+        private final String phase;
+        private final long count;
+        private final long failures;
+        private final double mean;
+        private final double p50;
+        private final double p90;
+        private final double p99;
+        private final double p999;
+        private final double max;
+
+        @ConstructorProperties({"template", "phase", "count", "failures", "mean", "p50", "p90", "p99", "p999", "max"})
+        public Stats(String template, String phase, long count, long failures, double mean,
+                double p50, double p90, double p99, double p999, double max) {
+            this.template = template;
+            this.phase = phase;
+            this.count = count;
+            this.failures = failures;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+        }
+
+        public String getTemplate() {
+            return this.template;
+        }
+
+        public String getPhase() {
+            return this.phase;
+        }
+
+        public long getCount() {
+            return this.count;
+        }
+
+        public long getFailures() {
+            return this.failures;
+        }
+
+        public double getMean() {
+            return this.mean;
+        }
+
+        public double getP50() {
+            return this.p50;
+        }
+
+        public double getP90() {
+            return this.p90;
+        }
+
+        public double getP99() {
+            return this.p99;
+        }
+
+        public double getP999() {
+            return this.p999;
+        }
+
+        public double getMax() {
+            return this.max;
+        }
+
+    }
+
+}
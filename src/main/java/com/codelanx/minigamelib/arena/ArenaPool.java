@@ -0,0 +1,301 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.arena;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of pre-loaded {@link Arena} instances for a single arena template.
+ * Instances are copied and loaded ahead of time so that a checkout from
+ * {@link ArenaFactory} does not need to touch the disk. The warmed chunks of
+ * idle instances are pinned through the {@link ChunkWarmer}, so they stay
+ * loaded however long an instance waits.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class ArenaPool {
+
+    /** The template folder this pool creates instances of */
+    private final File template;
+    /** Pins the chunks of idle instances */
+    private final ChunkWarmer warmer;
+    /** Ready {@link Arena} instances, oldest first */
+    private final Deque<Arena> idle = new ArrayDeque<>();
+    /** Number of idle instances to keep ready at all times */
+    private final int min;
+    /** Maximum number of idle instances this pool will hold */
+    private final int max;
+    /** Number of checkouts served from the pool */
+    private final AtomicLong hits = new AtomicLong();
+    /** Number of checkouts that had to load a world on demand */
+    private final AtomicLong misses = new AtomicLong();
+    /** Number of instances created by refills */
+    private final AtomicLong refills = new AtomicLong();
+    /** Total time spent on refills, in nanoseconds */
+    private final AtomicLong refillTime = new AtomicLong();
+    /** Time taken by the most recent refill, in nanoseconds */
+    private volatile long lastRefillTime;
+    /** Whether a refill task is currently scheduled */
+    private boolean refilling;
+    /** Number of refills that failed in a row */
+    private int failures;
+
+    /**
+     * {@link ArenaPool} constructor
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The template folder to pool instances of
+     * @param min The number of idle instances to keep ready
+     * @param max The maximum number of idle instances to hold
+     * @param warmer The {@link ChunkWarmer} pinning idle instances' chunks
+     */
+    ArenaPool(File template, int min, int max, ChunkWarmer warmer) {
+        if (min < 0 || max < min) {
+            throw new IllegalArgumentException("Pool sizes must satisfy 0 <= min <= max (" + min + ", " + max + ")");
+        }
+        this.template = template;
+        this.warmer = warmer;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Takes an idle {@link Arena} from this pool, recording a hit or a miss
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return An idle {@link Arena}, or {@code null} if the pool is empty
+     */
+    synchronized Arena poll() {
+        Arena back = this.idle.pollFirst();
+        if (back == null) {
+            this.misses.incrementAndGet();
+        } else {
+            this.hits.incrementAndGet();
+            this.warmer.unpin(back);
+        }
+        return back;
+    }
+
+    /**
+     * Adds a freshly loaded {@link Arena} to this pool
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param arena The {@link Arena} to add
+     * @return {@code false} if the pool is already full
+     */
+    synchronized boolean offer(Arena arena) {
+        if (this.idle.size() >= this.max) {
+            return false;
+        }
+        this.warmer.pin(arena);
+        return this.idle.offerLast(arena);
+    }
+
+    /**
+     * Removes every idle {@link Arena} from this pool
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The {@link Arena} instances that were idle
+     */
+    synchronized Deque<Arena> drain() {
+        Deque<Arena> back = new ArrayDeque<>(this.idle);
+        this.idle.clear();
+        back.forEach(this.warmer::unpin);
+        return back;
+    }
+
+    /**
+     * Marks a refill as scheduled, if one is needed and not already pending
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return {@code true} if the caller should schedule a refill
+     */
+    synchronized boolean beginRefill() {
+        if (this.refilling || this.idle.size() >= this.min) {
+            return false;
+        }
+        this.refilling = true;
+        return true;
+    }
+
+    /**
+     * Marks the pending refill as finished
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    synchronized void endRefill() {
+        this.refilling = false;
+    }
+
+    /**
+     * Records a failed refill
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of refills that have now failed in a row
+     */
+    synchronized int recordFailure() {
+        return ++this.failures;
+    }
+
+    /**
+     * Records the time taken to load one instance for this pool
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param nanos The time taken, in nanoseconds
+     */
+    void recordRefill(long nanos) {
+        synchronized (this) {
+            this.failures = 0;
+        }
+        this.refills.incrementAndGet();
+        this.refillTime.addAndGet(nanos);
+        this.lastRefillTime = nanos;
+    }
+
+    /**
+     * Returns the template folder this pool creates instances of
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The template {@link File}
+     */
+    public File getTemplate() {
+        return this.template;
+    }
+
+    /**
+     * Returns the number of idle instances kept ready
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The minimum pool size
+     */
+    public int getMinSize() {
+        return this.min;
+    }
+
+    /**
+     * Returns the maximum number of idle instances held
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The maximum pool size
+     */
+    public int getMaxSize() {
+        return this.max;
+    }
+
+    /**
+     * Returns the number of instances currently ready for checkout
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of idle instances
+     */
+    public synchronized int size() {
+        return this.idle.size();
+    }
+
+    /**
+     * Returns the number of checkouts served from this pool
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of pool hits
+     */
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * Returns the number of checkouts that found this pool empty
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of pool misses
+     */
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    /**
+     * Returns the number of instances loaded by refills
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of completed refills
+     */
+    public long getRefills() {
+        return this.refills.get();
+    }
+
+    /**
+     * Returns the time taken by the most recent refill
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The last refill latency, in milliseconds
+     */
+    public double getLastRefillMillis() {
+        return this.lastRefillTime / 1_000_000D;
+    }
+
+    /**
+     * Returns the average time taken to load one instance for this pool
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The average refill latency, in milliseconds
+     */
+    public double getAverageRefillMillis() {
+        long count = this.refills.get();
+        return count == 0 ? 0 : this.refillTime.get() / 1_000_000D / count;
+    }
+
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.arena;
+
+import com.codelanx.minigamelib.internal.LongMap;
+import com.sk89q.worldedit.Vector;
+import com.sk89q.worldedit.regions.CuboidRegion;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.bukkit.Location;
+import org.bukkit.block.Block;
+
+/**
+ * A chunk-keyed grid over the protected walls of an {@link Arena}. Each
+ * chunk column a wall touches lists that wall, so a point lookup only tests
+ * the few walls in its own chunk instead of every wall in the arena.
+ * <br><br>
+ * The index answers questions about a single {@link Arena}, such as which
+ * wall holds a block, and follows walls added or removed during an
+ * {@link EditSession}. {@link ProtectionMask} flattens the indexes of every
+ * loaded {@link Arena} in a world into per-section bitmasks for the block
+ * event listeners.
+ * <br><br>
+ * Walls are stored as block bounds, both corners inclusive. The index is
+ * not thread-safe, and is meant to be used on the main thread like the
+ * events that query it.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public final class ArenaRegionIndex {
+
+    private static final int[] NONE = new int[0];
+
+    /** minX, minY, minZ, maxX, maxY, maxZ for each wall */
+    private int[] boxes = new int[ArenaTemplate.REGION_STRIDE * 4];
+    /** The wall each box was made from, {@code null} once removed */
+    private CuboidRegion[] owners = new CuboidRegion[4];
+    /** Number of box slots used, including removed ones */
+    private int used;
+    /** Number of walls in the index */
+    private int size;
+    /** Wall ids in each chunk column, by chunk key */
+    private final LongMap<int[]> cells = new LongMap<>();
+
+    /**
+     * {@link ArenaRegionIndex} constructor
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param walls The walls to index
+     */
+    public ArenaRegionIndex(Collection<? extends CuboidRegion> walls) {
+        walls.forEach(this::add);
+    }
+
+    /**
+     * Adds a wall to the index
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param wall The {@link CuboidRegion} to add
+     */
+    public void add(CuboidRegion wall) {
+        Vector min = wall.getMinimumPoint();
+        Vector max = wall.getMaximumPoint();
+        int id = this.used++;
+        if (id == this.owners.length) {
+            this.owners = Arrays.copyOf(this.owners, id * 2);
+            this.boxes = Arrays.copyOf(this.boxes, id * 2 * ArenaTemplate.REGION_STRIDE);
+        }
+        int b = id * ArenaTemplate.REGION_STRIDE;
+        this.boxes[b] = min.getBlockX();
+        this.boxes[b + 1] = min.getBlockY();
+        this.boxes[b + 2] = min.getBlockZ();
+        this.boxes[b + 3] = max.getBlockX();
+        this.boxes[b + 4] = max.getBlockY();
+        this.boxes[b + 5] = max.getBlockZ();
+        this.owners[id] = wall;
+        this.size++;
+        for (int cx = this.boxes[b] >> 4; cx <= this.boxes[b + 3] >> 4; cx++) {
+            for (int cz = this.boxes[b + 2] >> 4; cz <= this.boxes[b + 5] >> 4; cz++) {
+                long key = ArenaRegionIndex.key(cx, cz);
+                int[] cell = this.cell(cx, cz);
+                cell = Arrays.copyOf(cell, cell.length + 1);
+                cell[cell.length - 1] = id;
+                this.cells.put(key, cell);
+            }
+        }
+    }
+
+    /**
+     * Removes a wall from the index
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param wall The {@link CuboidRegion} to remove
+     * @return {@code true} if the wall was in the index
+     */
+    public boolean remove(CuboidRegion wall) {
+        int id = -1;
+        for (int i = 0; i < this.used; i++) {
+            if (this.owners[i] == wall) {
+                id = i;
+                break;
+            }
+        }
+        if (id < 0) {
+            return false;
+        }
+        int b = id * ArenaTemplate.REGION_STRIDE;
+        for (int cx = this.boxes[b] >> 4; cx <= this.boxes[b + 3] >> 4; cx++) {
+            for (int cz = this.boxes[b + 2] >> 4; cz <= this.boxes[b + 5] >> 4; cz++) {
+                long key = ArenaRegionIndex.key(cx, cz);
+                int[] cell = this.cells.get(key);
+                if (cell.length == 1) {
+                    this.cells.remove(key);
+                    continue;
+                }
+                int[] left = new int[cell.length - 1];
+                for (int i = 0, j = 0; i < cell.length; i++) {
+                    if (cell[i] != id) {
+                        left[j++] = cell[i];
+                    }
+                }
+                this.cells.put(key, left);
+            }
+        }
+        this.owners[id] = null;
+        this.size--;
+        return true;
+    }
+
+    /**
+     * Returns the number of walls in the index
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of walls
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the block bounds of every wall in the index, in the order
+     * they were added
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return A new array holding minX, minY, minZ, maxX, maxY and maxZ for
+     *         each wall
+     */
+    public int[] getBounds() {
+        int[] back = new int[this.size * ArenaTemplate.REGION_STRIDE];
+        int b = 0;
+        for (int id = 0; id < this.used; id++) {
+            if (this.owners[id] != null) {
+                System.arraycopy(this.boxes, id * ArenaTemplate.REGION_STRIDE, back, b, ArenaTemplate.REGION_STRIDE);
+                b += ArenaTemplate.REGION_STRIDE;
+            }
+        }
+        return back;
+    }
+
+    /**
+     * Returns whether a block is inside any wall
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param x The block x coordinate
+     * @param y The block y coordinate
+     * @param z The block z coordinate
+     * @return {@code true} if the block is protected
+     */
+    public boolean contains(int x, int y, int z) {
+        return this.find(this.cell(x >> 4, z >> 4), x, y, z) >= 0;
+    }
+
+    /**
+     * Returns whether a {@link Location} is inside any wall. The world of
+     * the {@link Location} is not checked.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param loc The {@link Location} to check
+     * @return {@code true} if the block at the {@link Location} is protected
+     */
+    public boolean contains(Location loc) {
+        return this.contains(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+    }
+
+    /**
+     * Returns the wall containing a block
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param x The block x coordinate
+     * @param y The block y coordinate
+     * @param z The block z coordinate
+     * @return The first {@link CuboidRegion} containing the block, or
+     *         {@code null} if it is not protected
+     */
+    public CuboidRegion get(int x, int y, int z) {
+        int id = this.find(this.cell(x >> 4, z >> 4), x, y, z);
+        return id < 0 ? null : this.owners[id];
+    }
+
+    /**
+     * Returns whether a box overlaps any wall. Both corners are inclusive.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param minX The lowest x coordinate of the box
+     * @param minY The lowest y coordinate of the box
+     * @param minZ The lowest z coordinate of the box
+     * @param maxX The highest x coordinate of the box
+     * @param maxY The highest y coordinate of the box
+     * @param maxZ The highest z coordinate of the box
+     * @return {@code true} if any block in the box is protected
+     */
+    public boolean intersects(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        for (int cx = minX >> 4; cx <= maxX >> 4; cx++) {
+            for (int cz = minZ >> 4; cz <= maxZ >> 4; cz++) {
+                for (int id : this.cell(cx, cz)) {
+                    int b = id * ArenaTemplate.REGION_STRIDE;
+                    if (this.boxes[b] <= maxX && this.boxes[b + 3] >= minX
+                            && this.boxes[b + 1] <= maxY && this.boxes[b + 4] >= minY
+                            && this.boxes[b + 2] <= maxZ && this.boxes[b + 5] >= minZ) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes every protected block from a {@link List}, such as the block
+     * list of an explosion. Consecutive blocks in the same chunk share one
+     * grid lookup, and the {@link List} is compacted in a single pass.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param blocks The {@link List} of blocks to filter, which must support
+     *               {@link List#set(int, Object)}
+     * @return The number of blocks removed
+     */
+    public int removeContained(List<Block> blocks) {
+        if (this.size == 0) {
+            return 0;
+        }
+        int total = blocks.size();
+        int kept = 0;
+        int lastX = Integer.MIN_VALUE;
+        int lastZ = Integer.MIN_VALUE;
+        int[] cell = NONE;
+        for (int i = 0; i < total; i++) {
+            Block b = blocks.get(i);
+            int cx = b.getX() >> 4;
+            int cz = b.getZ() >> 4;
+            if (cx != lastX || cz != lastZ) {
+                cell = this.cell(cx, cz);
+                lastX = cx;
+                lastZ = cz;
+            }
+            if (cell.length == 0 || this.find(cell, b.getX(), b.getY(), b.getZ()) < 0) {
+                blocks.set(kept++, b);
+            }
+        }
+        blocks.subList(kept, total).clear();
+        return total - kept;
+    }
+
+    private int find(int[] cell, int x, int y, int z) {
+        for (int id : cell) {
+            int b = id * ArenaTemplate.REGION_STRIDE;
+            if (x >= this.boxes[b] && x <= this.boxes[b + 3]
+                    && y >= this.boxes[b + 1] && y <= this.boxes[b + 4]
+                    && z >= this.boxes[b + 2] && z <= this.boxes[b + 5]) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    private int[] cell(int cx, int cz) {
+        int[] back = this.cells.get(ArenaRegionIndex.key(cx, cz));
+        return back == null ? NONE : back;
+    }
+
+    private static long key(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.arena;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+
+/**
+ * A square cell of a shared void {@link World} that holds one {@link Arena}.
+ * The template's blocks are copied into the cell translated by a whole
+ * number of chunks, so the copy lines up with chunk boundaries the same way
+ * the template does.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public final class ArenaSlot {
+
+    /** The shared {@link World} this slot is in */
+    private final World world;
+    /** The index of this slot within its {@link World} */
+    private final int index;
+    /** The lowest block x coordinate of the cell */
+    private final int x;
+    /** The lowest block z coordinate of the cell */
+    private final int z;
+    /** The width of the cell, in blocks */
+    private final int size;
+    /** Added to template x coordinates to place them in this slot */
+    private final int offsetX;
+    /** Added to template z coordinates to place them in this slot */
+    private final int offsetZ;
+
+    /**
+     * {@link ArenaSlot} constructor
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param world The shared {@link World}
+     * @param index The index of the slot in the {@link World}
+     * @param x The lowest block x coordinate of the cell
+     * @param z The lowest block z coordinate of the cell
+     * @param size The width of the cell, in blocks
+     * @param offsetX The x translation from template to slot coordinates
+     * @param offsetZ The z translation from template to slot coordinates
+     */
+    ArenaSlot(World world, int index, int x, int z, int size, int offsetX, int offsetZ) {
+        this.world = world;
+        this.index = index;
+        this.x = x;
+        this.z = z;
+        this.size = size;
+        this.offsetX = offsetX;
+        this.offsetZ = offsetZ;
+    }
+
+    /**
+     * Returns the shared {@link World} this slot is in
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The {@link World} of this slot
+     */
+    public World getWorld() {
+        return this.world;
+    }
+
+    /**
+     * Returns the index of this slot within its {@link World}
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The slot index
+     */
+    public int getIndex() {
+        return this.index;
+    }
+
+    /**
+     * Returns the x translation applied to template coordinates
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The x offset, in blocks
+     */
+    public int getOffsetX() {
+        return this.offsetX;
+    }
+
+    /**
+     * Returns the z translation applied to template coordinates
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The z offset, in blocks
+     */
+    public int getOffsetZ() {
+        return this.offsetZ;
+    }
+
+    /**
+     * Returns the width of the cell
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The width of the cell, in blocks
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns whether a {@link Location} lies within this slot's cell
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param loc The {@link Location} to check
+     * @return {@code true} if the {@link Location} is in this slot
+     */
+    public boolean contains(Location loc) {
+        return loc.getWorld() == this.world && this.contains(loc.getBlockX(), loc.getBlockZ());
+    }
+
+    /**
+     * Returns whether a block column lies within this slot's cell
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param x The block x coordinate
+     * @param z The block z coordinate
+     * @return {@code true} if the column is in this slot
+     */
+    public boolean contains(int x, int z) {
+        return x >= this.x && x < this.x + this.size && z >= this.z && z < this.z + this.size;
+    }
+
+    /**
+     * Translates a box in template coordinates into this slot
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param bounds minX, minY, minZ, maxX, maxY, maxZ in the template
+     * @return A new array holding the box in this slot's {@link World}
+     */
+    int[] translate(int[] bounds) {
+        return new int[]{bounds[0] + this.offsetX, bounds[1], bounds[2] + this.offsetZ,
+            bounds[3] + this.offsetX, bounds[4], bounds[5] + this.offsetZ};
+    }
+
+    /**
+     * Removes every entity other than players from this slot's cell
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    void removeEntities() {
+        for (Entity e : this.world.getEntities()) {
+            if (!(e instanceof Player) && this.contains(e.getLocation())) {
+                e.remove();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.world.getName() + "#" + this.index;
+    }
+
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.arena;
+
+import com.codelanx.codelanxlib.config.Config;
+import com.codelanx.codelanxlib.data.types.Yaml;
+import com.codelanx.codelanxlib.serialize.SLocation;
+import com.codelanx.minigamelib.serialize.SCuboidRegion;
+import com.sk89q.worldedit.Vector;
+import com.sk89q.worldedit.regions.CuboidRegion;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+/**
+ * An immutable snapshot of the metadata in a template's config.yml. Every
+ * {@link Arena} instanced from a template shares one snapshot, which stores
+ * its regions and locations as flat primitive arrays and only turns them
+ * into {@link CuboidRegion} and {@link Location} objects when an
+ * {@link Arena} asks for them.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public final class ArenaTemplate {
+
+    /** Number of ints stored per protected region */
+    static final int REGION_STRIDE = 6;
+    /** Number of doubles stored per location */
+    static final int LOCATION_STRIDE = 5;
+    /** The name of the template */
+    private final String name;
+    /** The size of the config.yml this was parsed from */
+    private final long configSize;
+    /** The modification time of the config.yml this was parsed from */
+    private final long configModified;
+    /** minX, minY, minZ, maxX, maxY, maxZ for each protected region */
+    private final int[] regions;
+    /** x, y, z, yaw, pitch for each spawn */
+    private final double[] spawns;
+    /** x, y, z, yaw, pitch of the spectator spawn, or {@code null} */
+    private final double[] spectator;
+    /** The box holding the arena's blocks, or {@code null} if unknown */
+    private final int[] bounds;
+    /** x, y, z, yaw, pitch of the world spawn, or {@code null} */
+    private final double[] worldSpawn;
+
+    private ArenaTemplate(String name, long configSize, long configModified, int[] regions, double[] spawns, double[] spectator, int[] bounds, double[] editSpawn) {
+        this.name = name;
+        this.configSize = configSize;
+        this.configModified = configModified;
+        this.regions = regions;
+        this.spawns = spawns;
+        this.spectator = spectator != null && spectator.length == LOCATION_STRIDE ? spectator : null;
+        this.bounds = bounds != null && bounds.length == REGION_STRIDE ? bounds : ArenaTemplate.deriveBounds(regions, spawns, this.spectator);
+        if (editSpawn != null && editSpawn.length == LOCATION_STRIDE) {
+            this.worldSpawn = editSpawn;
+        } else {
+            this.worldSpawn = spawns.length > 0 ? Arrays.copyOf(spawns, LOCATION_STRIDE) : null;
+        }
+    }
+
+    /**
+     * Parses the config.yml of a template folder
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The template folder
+     * @return A new {@link ArenaTemplate}
+     */
+    public static ArenaTemplate parse(File template) {
+        File conf = new File(template, "config.yml");
+        long size = conf.length();
+        long modified = conf.lastModified();
+        Yaml yaml = new Yaml(conf);
+        List<?> protect = Config.retrieve(yaml, ArenaConfig.PROTECT_LOCATIONS).as(List.class);
+        List<?> spawns = Config.retrieve(yaml, ArenaConfig.SPAWN_LOCATIONS).as(List.class);
+        Object spectate = Config.retrieve(yaml, ArenaConfig.SPECTATE_LOCATION).as(Object.class);
+        Object bounds = Config.retrieve(yaml, ArenaConfig.SLOT_BOUNDS).as(Object.class);
+        Object edit = Config.retrieve(yaml, ArenaConfig.EDIT_SPAWN).as(Object.class);
+        return new ArenaTemplate(template.getName(), size, modified,
+                ArenaTemplate.flattenRegions(protect), ArenaTemplate.flattenLocations(spawns),
+                spectate == null ? null : ArenaTemplate.flattenLocations(Collections.singletonList(spectate)),
+                bounds == null ? null : ArenaTemplate.flattenRegions(Collections.singletonList(bounds)),
+                edit == null ? null : ArenaTemplate.flattenLocations(Collections.singletonList(edit)));
+    }
+
+    /**
+     * Returns whether the template's config.yml has changed since this
+     * snapshot was parsed
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The template folder
+     * @return {@code true} if this snapshot should be parsed again
+     */
+    public boolean isStale(File template) {
+        File conf = new File(template, "config.yml");
+        return conf.length() != this.configSize || conf.lastModified() != this.configModified;
+    }
+
+    /**
+     * Returns the name of the template this snapshot describes
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The template name
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the number of protected regions in the template
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of protected regions
+     */
+    public int getRegionCount() {
+        return this.regions.length / REGION_STRIDE;
+    }
+
+    /**
+     * Returns the number of spawns in the template
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of spawns
+     */
+    public int getSpawnCount() {
+        return this.spawns.length / LOCATION_STRIDE;
+    }
+
+    /**
+     * Returns the raw region bounds, {@link #REGION_STRIDE} ints per region.
+     * The array is shared and must not be modified.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The flattened region bounds
+     */
+    int[] getRegionBounds() {
+        return this.regions;
+    }
+
+    /**
+     * Returns the raw spawn coordinates, {@link #LOCATION_STRIDE} doubles per
+     * spawn. The array is shared and must not be modified.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The flattened spawn coordinates
+     */
+    double[] getSpawnCoordinates() {
+        return this.spawns;
+    }
+
+    /**
+     * Returns the raw spectator spawn coordinates. The array is shared and
+     * must not be modified.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The spectator spawn as x, y, z, yaw, pitch, or {@code null}
+     */
+    double[] getSpectatorCoordinates() {
+        return this.spectator;
+    }
+
+    /**
+     * Returns the box holding the arena's blocks, used to place it in an
+     * {@link ArenaSlot}. This is {@code slot.bounds} from the config if set,
+     * otherwise the full-height column around every protected region and
+     * spawn. The array is shared and must not be modified.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return minX, minY, minZ, maxX, maxY, maxZ, or {@code null} if the
+     *         template has neither bounds nor protected regions
+     */
+    int[] getBounds() {
+        return this.bounds;
+    }
+
+    /**
+     * Creates the protected regions of this template in a {@link World}
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param world The {@link World} to bind the regions to
+     * @param dx The x offset to translate the regions by
+     * @param dz The z offset to translate the regions by
+     * @return A new, mutable {@link List} of {@link CuboidRegion} objects
+     */
+    List<CuboidRegion> bindRegions(World world, int dx, int dz) {
+        List<CuboidRegion> back = new ArrayList<>(this.getRegionCount());
+        for (int i = 0; i < this.regions.length; i += REGION_STRIDE) {
+            back.add(new SCuboidRegion(world,
+                    new Vector(this.regions[i] + dx, this.regions[i + 1], this.regions[i + 2] + dz),
+                    new Vector(this.regions[i + 3] + dx, this.regions[i + 4], this.regions[i + 5] + dz)));
+        }
+        return back;
+    }
+
+    /**
+     * Creates the spawns of this template in a {@link World}
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param world The {@link World} to bind the spawns to
+     * @param dx The x offset to translate the spawns by
+     * @param dz The z offset to translate the spawns by
+     * @return A new, mutable {@link List} of {@link Location} objects
+     */
+    List<Location> bindSpawns(World world, int dx, int dz) {
+        List<Location> back = new ArrayList<>(this.getSpawnCount());
+        for (int i = 0; i < this.spawns.length; i += LOCATION_STRIDE) {
+            back.add(ArenaTemplate.toLocation(world, this.spawns, i, dx, dz));
+        }
+        return back;
+    }
+
+    /**
+     * Creates the spectator spawn of this template in a {@link World}
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param world The {@link World} to bind the spawn to
+     * @param dx The x offset to translate the spawn by
+     * @param dz The z offset to translate the spawn by
+     * @return A new {@link Location}, or {@code null} if none is set
+     */
+    Location bindSpectator(World world, int dx, int dz) {
+        return this.spectator == null ? null : ArenaTemplate.toLocation(world, this.spectator, 0, dx, dz);
+    }
+
+    /**
+     * Creates the spawn of a {@link World} holding this template: the edit
+     * spawn if one was saved, otherwise the first team spawn
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param world The {@link World} to bind the spawn to
+     * @return A new {@link Location}, or {@code null} if the template has
+     *         neither an edit spawn nor team spawns
+     */
+    Location bindWorldSpawn(World world) {
+        return this.worldSpawn == null ? null : ArenaTemplate.toLocation(world, this.worldSpawn, 0, 0, 0);
+    }
+
+    private static Location toLocation(World world, double[] coords, int i, int dx, int dz) {
+        return new Location(world, coords[i] + dx, coords[i + 1], coords[i + 2] + dz, (float) coords[i + 3], (float) coords[i + 4]);
+    }
+
+    private static int[] deriveBounds(int[] regions, double[] spawns, double[] spectator) {
+        if (regions.length == 0) {
+            return null;
+        }
+        int[] back = {regions[0], 0, regions[2], regions[3], 255, regions[5]};
+        for (int i = 0; i < regions.length; i += REGION_STRIDE) {
+            ArenaTemplate.include(back, regions[i], regions[i + 2]);
+            ArenaTemplate.include(back, regions[i + 3], regions[i + 5]);
+        }
+        for (int i = 0; i < spawns.length; i += LOCATION_STRIDE) {
+            ArenaTemplate.include(back, (int) Math.floor(spawns[i]), (int) Math.floor(spawns[i + 2]));
+        }
+        if (spectator != null) {
+            ArenaTemplate.include(back, (int) Math.floor(spectator[0]), (int) Math.floor(spectator[2]));
+        }
+        return back;
+    }
+
+    private static void include(int[] bounds, int x, int z) {
+        bounds[0] = Math.min(bounds[0], x);
+        bounds[2] = Math.min(bounds[2], z);
+        bounds[3] = Math.max(bounds[3], x);
+        bounds[5] = Math.max(bounds[5], z);
+    }
+
+    private static int[] flattenRegions(Collection<?> regions) {
+        if (regions == null) {
+            return new int[0];
+        }
+        int[] back = new int[regions.size() * REGION_STRIDE];
+        int i = 0;
+        for (Object o : regions) {
+            if (!(o instanceof CuboidRegion)) {
+                continue;
+            }
+            CuboidRegion r = (CuboidRegion) o;
+            Vector min = r.getMinimumPoint();
+            Vector max = r.getMaximumPoint();
+            back[i++] = min.getBlockX();
+            back[i++] = min.getBlockY();
+            back[i++] = min.getBlockZ();
+            back[i++] = max.getBlockX();
+            back[i++] = max.getBlockY();
+            back[i++] = max.getBlockZ();
+        }
+        return i == back.length ? back : Arrays.copyOf(back, i);
+    }
+
+    private static double[] flattenLocations(Collection<?> locations) {
+        if (locations == null) {
+            return new double[0];
+        }
+        double[] back = new double[locations.size() * LOCATION_STRIDE];
+        int i = 0;
+        for (Object o : locations) {
+            Location loc = o instanceof SLocation ? ((SLocation) o).toLocation()
+                    : o instanceof Location ? (Location) o : null;
+            if (loc == null) {
+                continue;
+            }
+            back[i++] = loc.getX();
+            back[i++] = loc.getY();
+            back[i++] = loc.getZ();
+            back[i++] = loc.getYaw();
+            back[i++] = loc.getPitch();
+        }
+        return i == back.length ? back : Arrays.copyOf(back, i);
+    }
+
+}
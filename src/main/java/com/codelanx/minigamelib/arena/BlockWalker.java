@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.arena;
+
+import com.codelanx.minigamelib.arena.TickScheduler.Priority;
+import com.codelanx.minigamelib.arena.TickScheduler.Quota;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+
+/**
+ * Walks every block of a box as a {@link TickScheduler} job, one layer of
+ * one chunk column per step, handing each block to {@link #visit} along
+ * with a {@link ChunkSnapshot} of the chunk it is in. Every block visited
+ * counts against the walk's {@link Quota}.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+abstract class BlockWalker implements BooleanSupplier {
+
+    /** The {@link World} whose chunks are snapshotted */
+    private final World world;
+    private final int minX, minY, minZ, maxX, maxY, maxZ;
+    private int cx, cz, y;
+    /** Snapshot of the chunk column being walked */
+    private ChunkSnapshot snapshot;
+    /** Caps the blocks visited per tick, or {@code null} for no cap */
+    private Quota quota;
+
+    /**
+     * {@link BlockWalker} constructor
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param world The {@link World} to walk and snapshot
+     * @param bounds minX, minY, minZ, maxX, maxY, maxZ in {@code world}
+     */
+    BlockWalker(World world, int[] bounds) {
+        this.world = world;
+        this.minX = bounds[0];
+        this.minY = Math.max(0, bounds[1]);
+        this.minZ = bounds[2];
+        this.maxX = bounds[3];
+        this.maxY = Math.min(world.getMaxHeight() - 1, bounds[4]);
+        this.maxZ = bounds[5];
+        this.cx = this.minX >> 4;
+        this.cz = this.minZ >> 4;
+        this.y = this.minY;
+    }
+
+    /**
+     * Queues this walk on a {@link TickScheduler}
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param scheduler The {@link TickScheduler} to run the walk on
+     * @param priority The {@link Priority} of the walk
+     * @param quota The {@link Quota} of blocks per tick the walk counts
+     *              against, or {@code null} for no cap
+     * @return A {@link CompletableFuture} completed on the main thread once
+     *         the walk is done
+     */
+    final CompletableFuture<Void> start(TickScheduler scheduler, Priority priority, Quota quota) {
+        this.quota = quota;
+        return scheduler.submit(priority, quota, this);
+    }
+
+    /**
+     * Handles one block of the box
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param x The block x coordinate in the walked {@link World}
+     * @param y The block y coordinate
+     * @param z The block z coordinate in the walked {@link World}
+     * @param snapshot A {@link ChunkSnapshot} of the block's chunk, taken
+     *                 when the walk entered the chunk
+     */
+    abstract void visit(int x, int y, int z, ChunkSnapshot snapshot);
+
+    @Override
+    public final boolean getAsBoolean() {
+        if (this.cx > this.maxX >> 4 || this.minY > this.maxY) {
+            return true;
+        }
+        if (Bukkit.getWorld(this.world.getUID()) != this.world) {
+            throw new IllegalStateException("World " + this.world.getName() + " was unloaded");
+        }
+        if (this.snapshot == null) {
+            this.snapshot = this.world.getChunkAt(this.cx, this.cz).getChunkSnapshot();
+        }
+        int x0 = Math.max(this.minX, this.cx << 4);
+        int x1 = Math.min(this.maxX, (this.cx << 4) + 15);
+        int z0 = Math.max(this.minZ, this.cz << 4);
+        int z1 = Math.min(this.maxZ, (this.cz << 4) + 15);
+        for (int x = x0; x <= x1; x++) {
+            for (int z = z0; z <= z1; z++) {
+                this.visit(x, this.y, z, this.snapshot);
+            }
+        }
+        if (this.quota != null) {
+            this.quota.use((x1 - x0 + 1) * (z1 - z0 + 1));
+        }
+        if (++this.y > this.maxY) {
+            this.snapshot = null;
+            this.y = this.minY;
+            if (++this.cz > this.maxZ >> 4) {
+                this.cz = this.minZ >> 4;
+                this.cx++;
+            }
+        }
+        return this.cx > this.maxX >> 4;
+    }
+
+    /**
+     * Returns a walk that sets every non-air block of a box to air
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param world The {@link World} to clear blocks in
+     * @param bounds The box to clear
+     * @return A new {@link BlockWalker}, not yet started
+     */
+    static BlockWalker clearing(World world, int[] bounds) {
+        return new BlockWalker(world, bounds) {
+
+            @Override
+            void visit(int x, int y, int z, ChunkSnapshot snapshot) {
+                if (snapshot.getBlockTypeId(x & 15, y, z & 15) != 0) {
+                    world.getBlockAt(x, y, z).setTypeIdAndData(0, (byte) 0, false);
+                }
+            }
+
+        };
+    }
+
+}
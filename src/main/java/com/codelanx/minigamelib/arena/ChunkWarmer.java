@@ -0,0 +1,344 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.arena;
+
+import com.codelanx.minigamelib.arena.TickScheduler.Priority;
+import com.codelanx.minigamelib.arena.TickScheduler.Quota;
+import com.codelanx.minigamelib.internal.LongMap;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bukkit.World;
+
+/**
+ * Loads the chunks around the spawns of a fresh {@link Arena} over several
+ * ticks, one chunk per {@link TickScheduler} step, so that the first players
+ * teleported in do not each force a synchronous chunk load. An {@link Arena} is marked ready once every chunk
+ * within the configured radius of its spawns and spectator spawn is loaded.
+ * A single chunk load can take longer than the whole tick budget, so the
+ * loads of every warm-up together are also capped at a fixed number per
+ * tick.
+ * <br><br>
+ * The same chunks can be pinned while an {@link Arena} sits idle in an
+ * {@link ArenaPool}, so the server does not unload them before checkout
+ * and the {@link Arena} stays ready.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class ChunkWarmer {
+
+    /** Runs warm-ups in time slices on the main thread */
+    private final TickScheduler scheduler;
+    /** Chunk radius loaded around each spawn, or -1 to disable warm-up */
+    private final int radius;
+    /** Caps the chunks loaded per tick, shared by every warm-up */
+    private final Quota quota;
+    /** Records how long warm-ups take */
+    private final ArenaMetrics metrics;
+    /** Number of arenas warmed up */
+    private final AtomicLong warmed = new AtomicLong();
+    /** Number of chunks loaded by warm-ups */
+    private final AtomicLong chunks = new AtomicLong();
+    /** Total time spent warming arenas, in nanoseconds */
+    private final AtomicLong warmTime = new AtomicLong();
+    /** Time taken by the most recent warm-up, in nanoseconds */
+    private volatile long lastWarmTime;
+    /** Chunks kept loaded for idle arenas, with their number of holders, by world */
+    private final Map<UUID, LongMap<int[]>> pinned = new HashMap<>();
+
+    /**
+     * {@link ChunkWarmer} constructor
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param scheduler The {@link TickScheduler} to run warm-ups on
+     * @param radius The chunk radius to load around each spawn, or a
+     *               negative number to mark arenas ready immediately
+     * @param budget The maximum number of chunks to load per tick
+     * @param metrics The {@link ArenaMetrics} to record warm-ups in
+     */
+    ChunkWarmer(TickScheduler scheduler, int radius, int budget, ArenaMetrics metrics) {
+        this.scheduler = scheduler;
+        this.radius = radius < 0 ? -1 : radius;
+        this.quota = new Quota(Math.max(1, budget));
+        this.metrics = metrics;
+    }
+
+    /**
+     * Starts warming up an {@link Arena}. Must be called on the main thread.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param arena The {@link Arena} to warm up
+     * @return A {@link CompletableFuture} completed with the {@link Arena} on
+     *         the main thread once it is ready
+     */
+    public CompletableFuture<Arena> warm(Arena arena) {
+        long start = System.nanoTime();
+        long[] keys = this.radius < 0 ? new long[0] : this.chunksAround(arena.getTemplate(), arena.getSlot());
+        if (keys.length == 0) {
+            this.finish(arena, start);
+            return CompletableFuture.completedFuture(arena);
+        }
+        World world = arena.getWorld();
+        int[] next = {0};
+        return this.scheduler.submit(Priority.PROVISION, this.quota, () -> {
+            if (arena.getWorld() != world) {
+                //Disposed before it was ever used
+                throw new IllegalStateException("Arena was disposed during warm-up");
+            }
+            //Chunks that are already loaded are free, only count real loads
+            while (next[0] < keys.length) {
+                long key = keys[next[0]++];
+                int x = (int) (key >> 32);
+                int z = (int) key;
+                if (!world.isChunkLoaded(x, z)) {
+                    world.loadChunk(x, z);
+                    this.quota.use(1);
+                    this.chunks.incrementAndGet();
+                    break;
+                }
+            }
+            return next[0] >= keys.length;
+        }).thenApply(v -> {
+            this.finish(arena, start);
+            return arena;
+        });
+    }
+
+    /**
+     * Marks an {@link Arena} ready and records how long it took
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param arena The {@link Arena} that finished warming up
+     * @param start The {@link System#nanoTime()} the warm-up started at
+     */
+    private void finish(Arena arena, long start) {
+        this.metrics.record(ArenaMetrics.Phase.WARMUP, arena.getName(), start);
+        long time = System.nanoTime() - start;
+        arena.markReady(time);
+        this.warmed.incrementAndGet();
+        this.warmTime.addAndGet(time);
+        this.lastWarmTime = time;
+    }
+
+    /**
+     * Keeps the warmed chunks of an idle {@link Arena} loaded until it is
+     * unpinned
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param arena The {@link Arena} to pin
+     */
+    synchronized void pin(Arena arena) {
+        if (this.radius < 0 || arena.getWorld() == null) {
+            return;
+        }
+        LongMap<int[]> chunks = this.pinned.computeIfAbsent(arena.getWorld().getUID(), k -> new LongMap<>());
+        for (long key : this.chunksAround(arena.getTemplate(), arena.getSlot())) {
+            chunks.computeIfAbsent(key, k -> new int[1])[0]++;
+        }
+    }
+
+    /**
+     * Lets the server unload the chunks of an {@link Arena} again
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param arena The {@link Arena} to unpin
+     */
+    synchronized void unpin(Arena arena) {
+        if (this.radius < 0 || arena.getWorld() == null) {
+            return;
+        }
+        UUID id = arena.getWorld().getUID();
+        LongMap<int[]> chunks = this.pinned.get(id);
+        if (chunks == null) {
+            return;
+        }
+        for (long key : this.chunksAround(arena.getTemplate(), arena.getSlot())) {
+            int[] holders = chunks.get(key);
+            if (holders != null && --holders[0] <= 0) {
+                chunks.remove(key);
+            }
+        }
+        if (chunks.isEmpty()) {
+            this.pinned.remove(id);
+        }
+    }
+
+    /**
+     * Returns whether a chunk is kept loaded for an idle {@link Arena}
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param world The {@link World} of the chunk
+     * @param x The chunk x coordinate
+     * @param z The chunk z coordinate
+     * @return {@code true} if the chunk should not be unloaded
+     */
+    public synchronized boolean isPinned(World world, int x, int z) {
+        if (this.pinned.isEmpty()) {
+            return false;
+        }
+        LongMap<int[]> chunks = this.pinned.get(world.getUID());
+        return chunks != null && chunks.containsKey(((long) x << 32) | (z & 0xFFFFFFFFL));
+    }
+
+    /**
+     * Collects the distinct chunks within the warm-up radius of every spawn
+     * in a template, each packed as {@code (x << 32) | (z & 0xFFFFFFFF)}
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The {@link ArenaTemplate} to read spawns from
+     * @param slot The {@link ArenaSlot} the spawns are translated into, or
+     *             {@code null} if the {@link Arena} has its own world
+     * @return The packed chunk coordinates, in spawn order
+     */
+    private long[] chunksAround(ArenaTemplate template, ArenaSlot slot) {
+        int dx = slot == null ? 0 : slot.getOffsetX();
+        int dz = slot == null ? 0 : slot.getOffsetZ();
+        double[] spawns = template.getSpawnCoordinates();
+        double[] spectator = template.getSpectatorCoordinates();
+        int side = this.radius * 2 + 1;
+        int count = spawns.length / ArenaTemplate.LOCATION_STRIDE + (spectator == null ? 0 : 1);
+        long[] back = new long[count * side * side];
+        int size = 0;
+        for (int i = 0; i < spawns.length; i += ArenaTemplate.LOCATION_STRIDE) {
+            size = this.addSquare(back, size, spawns[i] + dx, spawns[i + 2] + dz);
+        }
+        if (spectator != null) {
+            size = this.addSquare(back, size, spectator[0] + dx, spectator[2] + dz);
+        }
+        return Arrays.copyOf(back, size);
+    }
+
+    private int addSquare(long[] keys, int size, double x, double z) {
+        int cx = ((int) Math.floor(x)) >> 4;
+        int cz = ((int) Math.floor(z)) >> 4;
+        for (int dx = -this.radius; dx <= this.radius; dx++) {
+            for (int dz = -this.radius; dz <= this.radius; dz++) {
+                long key = ((long) (cx + dx) << 32) | ((cz + dz) & 0xFFFFFFFFL);
+                if (!ChunkWarmer.contains(keys, size, key)) {
+                    keys[size++] = key;
+                }
+            }
+        }
+        return size;
+    }
+
+    private static boolean contains(long[] keys, int size, long key) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the chunk radius loaded around each spawn
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The warm-up radius, or -1 if warm-up is disabled
+     */
+    public int getRadius() {
+        return this.radius;
+    }
+
+    /**
+     * Returns the maximum number of chunks loaded per tick, across every
+     * warm-up
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The per-tick chunk budget
+     */
+    public int getBudget() {
+        return this.quota.getLimit();
+    }
+
+    /**
+     * Returns the number of arenas that finished warming up
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of warmed arenas
+     */
+    public long getWarmed() {
+        return this.warmed.get();
+    }
+
+    /**
+     * Returns the number of chunks loaded by warm-ups
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of chunks loaded
+     */
+    public long getChunksLoaded() {
+        return this.chunks.get();
+    }
+
+    /**
+     * Returns the time taken by the most recent warm-up
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The last warm-up time, in milliseconds
+     */
+    public long getLastWarmMillis() {
+        return this.lastWarmTime / 1000000L;
+    }
+
+    /**
+     * Returns the average time taken to warm up an arena
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The average warm-up time, in milliseconds
+     */
+    public long getAverageWarmMillis() {
+        long count = this.warmed.get();
+        return count == 0 ? 0 : this.warmTime.get() / count / 1000000L;
+    }
+
+}
@@ -0,0 +1,372 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.arena;
+
+import com.codelanx.minigamelib.arena.TickScheduler.Priority;
+import com.codelanx.minigamelib.arena.TickScheduler.Quota;
+import com.sk89q.worldedit.CuboidClipboard;
+import com.sk89q.worldedit.Vector;
+import com.sk89q.worldedit.blocks.BaseBlock;
+import java.io.File;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+
+/**
+ * A {@link SlotFiller} that reads each template once into a WorldEdit
+ * {@link CuboidClipboard} and pastes it into slots from memory. Clipboards
+ * are kept in a least recently used cache under a memory cap. Pastes walk
+ * the slot in steps on a {@link TickScheduler} and only write blocks that
+ * differ from the clipboard, so a reset is a single re-paste over whatever
+ * a game left behind. The source {@link World} a clipboard is read from is
+ * released as soon as the read finishes, and only loaded again when the
+ * clipboard is missing from the cache.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class ClipboardSlotFiller implements SlotFiller {
+
+    /** Runs walks in time slices on the main thread */
+    private final TickScheduler scheduler;
+    /** Provides the loaded source {@link World} of a template */
+    private final Function<File, CompletableFuture<World>> sources;
+    /** Unloads the source {@link World} of a template once it has been read */
+    private final Consumer<File> release;
+    /** Caps the blocks read, pasted or cleared per tick */
+    private final Quota blocks;
+    /** Maximum estimated size of all cached clipboards, in bytes */
+    private final long capacity;
+    /** Cached clipboards by lowercase template name, least recent first */
+    private final LinkedHashMap<String, Entry> cache = new LinkedHashMap<>(16, 0.75f, true);
+    /** Clipboards currently being read, by lowercase template name */
+    private final Map<String, CompletableFuture<Entry>> loading = new HashMap<>();
+    /** Estimated size of all cached clipboards, in bytes */
+    private long size;
+    /** Number of fills served from a cached clipboard */
+    private long hits;
+    /** Number of fills that had to read the template */
+    private long misses;
+    /** Number of clipboards evicted to stay under the cap */
+    private long evictions;
+
+    /**
+     * {@link ClipboardSlotFiller} constructor
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param scheduler The {@link TickScheduler} to run walks on
+     * @param sources Provides the loaded source {@link World} of a template
+     * @param release Unloads the source {@link World} of a template once its
+     *                clipboard has been read
+     * @param blocks The {@link Quota} of blocks visited per tick
+     * @param capacity The memory cap for cached clipboards, in megabytes
+     */
+    public ClipboardSlotFiller(TickScheduler scheduler, Function<File, CompletableFuture<World>> sources,
+            Consumer<File> release, Quota blocks, long capacity) {
+        this.scheduler = scheduler;
+        this.sources = sources;
+        this.release = release;
+        this.blocks = blocks;
+        this.capacity = capacity * 1024 * 1024;
+    }
+
+    @Override
+    public CompletableFuture<Void> fill(ArenaSlot slot, File template, ArenaTemplate meta) {
+        return this.clipboard(template, meta).thenCompose(e -> this.paste(slot, e));
+    }
+
+    @Override
+    public CompletableFuture<Void> reset(ArenaSlot slot, File template, ArenaTemplate meta) {
+        slot.removeEntities();
+        return this.fill(slot, template, meta);
+    }
+
+    @Override
+    public CompletableFuture<Void> clear(ArenaSlot slot, ArenaTemplate meta) {
+        slot.removeEntities();
+        return BlockWalker.clearing(slot.getWorld(), slot.translate(meta.getBounds())).start(this.scheduler, Priority.CLEANUP, this.blocks);
+    }
+
+    @Override
+    public synchronized void invalidate(String template) {
+        Entry e = this.cache.remove(template.toLowerCase());
+        if (e != null) {
+            this.size -= e.bytes;
+        }
+    }
+
+    /**
+     * Returns the clipboard of a template, reading it if it is not cached
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The template folder
+     * @param meta The parsed metadata of the template
+     * @return A {@link CompletableFuture} of the clipboard entry
+     */
+    private synchronized CompletableFuture<Entry> clipboard(File template, ArenaTemplate meta) {
+        String key = template.getName().toLowerCase();
+        Entry e = this.cache.get(key);
+        if (e != null && e.meta == meta) {
+            this.hits++;
+            return CompletableFuture.completedFuture(e);
+        }
+        this.misses++;
+        if (e != null) {
+            this.invalidate(key);
+        }
+        CompletableFuture<Entry> back = this.loading.get(key);
+        if (back == null) {
+            back = this.sources.apply(template).thenCompose(source -> this.read(source, meta));
+            this.loading.put(key, back);
+            back.whenComplete((read, ex) -> {
+                //The clipboard holds everything needed, so the world is not kept around
+                this.release.accept(template);
+                synchronized (this) {
+                    this.loading.remove(key);
+                    if (read != null) {
+                        this.store(key, read);
+                    }
+                }
+            });
+        }
+        return back;
+    }
+
+    /**
+     * Caches a clipboard, evicting the least recently used ones until the
+     * cache is under its cap. A clipboard larger than the whole cap is not
+     * cached at all.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param key The lowercase template name
+     * @param entry The clipboard to cache
+     */
+    private void store(String key, Entry entry) {
+        if (entry.bytes > this.capacity) {
+            return;
+        }
+        this.invalidate(key);
+        Iterator<Entry> itr = this.cache.values().iterator();
+        while (this.size + entry.bytes > this.capacity && itr.hasNext()) {
+            this.size -= itr.next().bytes;
+            itr.remove();
+            this.evictions++;
+        }
+        this.cache.put(key, entry);
+        this.size += entry.bytes;
+    }
+
+    /**
+     * Reads the bounds of a template out of its source {@link World} into a
+     * new clipboard. Air is left unset, and every other block refers to one
+     * shared {@link BaseBlock} per type and data value.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param source The loaded source {@link World}
+     * @param meta The parsed metadata of the template
+     * @return A {@link CompletableFuture} of the filled clipboard entry
+     */
+    private CompletableFuture<Entry> read(World source, ArenaTemplate meta) {
+        int[] bounds = ClipboardSlotFiller.clamp(meta.getBounds(), source.getMaxHeight());
+        Vector dims = new Vector(bounds[3] - bounds[0] + 1, bounds[4] - bounds[1] + 1, bounds[5] - bounds[2] + 1);
+        CuboidClipboard clipboard = new CuboidClipboard(dims, new Vector(bounds[0], bounds[1], bounds[2]));
+        BaseBlock[] palette = new BaseBlock[1 << 16];
+        return new BlockWalker(source, bounds) {
+
+            @Override
+            void visit(int x, int y, int z, ChunkSnapshot snapshot) {
+                int type = snapshot.getBlockTypeId(x & 15, y, z & 15);
+                if (type == 0) {
+                    return;
+                }
+                int data = snapshot.getBlockData(x & 15, y, z & 15);
+                int id = ((type & 0xFFF) << 4) | (data & 0xF);
+                if (palette[id] == null) {
+                    palette[id] = new BaseBlock(type, data);
+                }
+                clipboard.setBlock(new Vector(x - bounds[0], y - bounds[1], z - bounds[2]), palette[id]);
+            }
+
+        }.start(this.scheduler, Priority.PROVISION, this.blocks).thenApply(v -> new Entry(meta, clipboard, bounds,
+                ClipboardSlotFiller.estimate(dims.getBlockX(), dims.getBlockY(), dims.getBlockZ())));
+    }
+
+    /**
+     * Pastes a clipboard into a slot, writing only the blocks that differ
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param slot The {@link ArenaSlot} to paste into
+     * @param entry The clipboard to paste
+     * @return A {@link CompletableFuture} completed once the paste is done
+     */
+    private CompletableFuture<Void> paste(ArenaSlot slot, Entry entry) {
+        World target = slot.getWorld();
+        int[] bounds = slot.translate(entry.bounds);
+        return new BlockWalker(target, bounds) {
+
+            @Override
+            void visit(int x, int y, int z, ChunkSnapshot snapshot) {
+                BaseBlock block = entry.clipboard.getPoint(new Vector(x - bounds[0], y - bounds[1], z - bounds[2]));
+                int type = block == null ? 0 : block.getType();
+                int data = block == null ? 0 : block.getData();
+                if (snapshot.getBlockTypeId(x & 15, y, z & 15) != type
+                        || snapshot.getBlockData(x & 15, y, z & 15) != data) {
+                    target.getBlockAt(x, y, z).setTypeIdAndData(type, (byte) data, false);
+                }
+            }
+
+        }.start(this.scheduler, Priority.PROVISION, this.blocks);
+    }
+
+    private static int[] clamp(int[] bounds, int maxHeight) {
+        return new int[]{bounds[0], Math.max(0, bounds[1]), bounds[2],
+            bounds[3], Math.min(maxHeight - 1, bounds[4]), bounds[5]};
+    }
+
+    /**
+     * Estimates the heap used by a clipboard of the given size: one
+     * compressed reference per block, plus the headers of the nested arrays
+     * the clipboard stores them in. Block objects are shared and ignored.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param width The clipboard width
+     * @param height The clipboard height
+     * @param length The clipboard length
+     * @return The estimated size, in bytes
+     */
+    static long estimate(int width, int height, int length) {
+        return (long) width * height * length * 4 + (long) width * height * 16 + width * 16L;
+    }
+
+    /**
+     * Returns the memory cap for cached clipboards
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The cap, in bytes
+     */
+    public long getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the estimated size of all cached clipboards
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The cached size, in bytes
+     */
+    public synchronized long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns the number of clipboards currently cached
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of cached clipboards
+     */
+    public synchronized int getResident() {
+        return this.cache.size();
+    }
+
+    /**
+     * Returns the number of fills served from a cached clipboard
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of cache hits
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the number of fills that had to read their template
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of cache misses
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Returns the number of clipboards evicted to stay under the cap
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of evictions
+     */
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * A cached clipboard and the metadata it was read with
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    private static final class Entry {
+
+        private final ArenaTemplate meta;
+        private final CuboidClipboard clipboard;
+        private final int[] bounds;
+        private final long bytes;
+
+        private Entry(ArenaTemplate meta, CuboidClipboard clipboard, int[] bounds, long bytes) {
+            this.meta = meta;
+            this.clipboard = clipboard;
+            this.bounds = bounds;
+            this.bytes = bytes;
+        }
+
+    }
+
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.arena;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ways of cloning an arena template folder into a new instance folder, from
+ * cheapest to most expensive
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public enum CloneStrategy {
+
+    /**
+     * Shares file extents with the template through a copy-on-write reflink
+     * (FICLONE), available on btrfs and xfs. Writes to the instance never
+     * reach the template.
+     */
+    REFLINK(true) {
+        @Override
+        void cloneFile(File source, File destination) throws IOException {
+            CloneStrategy.reflink(source, destination, false);
+        }
+
+        @Override
+        public void cloneDirectory(File source, File destination) throws IOException {
+            this.checkDirectories(source, destination);
+            CloneStrategy.reflink(source, destination, true);
+        }
+
+        @Override
+        boolean isPerFile() {
+            return false;
+        }
+    },
+    /**
+     * Hard links region files to the template and copies everything else.
+     * The server rewrites region files whenever it saves a chunk, so this is
+     * only safe for worlds that are never saved. It is never selected
+     * automatically, and is bypassed for {@link EditSession} worlds.
+     */
+    HARD_LINK(false) {
+        @Override
+        void cloneFile(File source, File destination) throws IOException {
+            if (CloneStrategy.isRegionFile(source)) {
+                Files.createLink(destination.toPath(), source.toPath());
+            } else {
+                COPY.cloneFile(source, destination);
+            }
+        }
+    },
+    /** Copies every file byte for byte. Always available. */
+    COPY(true) {
+        @Override
+        void cloneFile(File source, File destination) throws FileNotFoundException, IOException {
+            try (FileChannel sourceChannel = new FileInputStream(source).getChannel();
+                    FileChannel targetChannel = new FileOutputStream(destination).getChannel()) {
+                sourceChannel.transferTo(0, sourceChannel.size(), targetChannel);
+            }
+            destination.setLastModified(source.lastModified());
+        }
+    };
+
+    /** Whether the cloned folder can be written to without touching the source */
+    private final boolean writable;
+
+    private CloneStrategy(boolean writable) {
+        this.writable = writable;
+    }
+
+    /**
+     * Clones a single {@link File} from one location to another
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param source The source {@link File}
+     * @param destination The destination of the {@link File} clone
+     * @throws IOException Failure to clone the file
+     */
+    abstract void cloneFile(File source, File destination) throws IOException;
+
+    /**
+     * Clones a directory from one file location to another
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param source The source directory to clone
+     * @param destination The destination of the directory clone
+     * @throws IOException Failure to clone the entire directory
+     */
+    public void cloneDirectory(File source, File destination) throws IOException {
+        this.checkDirectories(source, destination);
+        destination.mkdirs();
+        for (File file : source.listFiles()) {
+            if (file.isDirectory()) {
+                this.cloneDirectory(file, new File(destination, file.getName()));
+            } else {
+                this.cloneFile(file, new File(destination, file.getName()));
+            }
+        }
+    }
+
+    /**
+     * Verifies that a directory clone can go ahead
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param source The source directory to clone
+     * @param destination The destination of the directory clone
+     */
+    void checkDirectories(File source, File destination) {
+        if (!source.isDirectory()) {
+            throw new IllegalArgumentException("Source (" + source.getPath() + ") must be a directory.");
+        }
+
+        if (!source.exists()) {
+            throw new IllegalArgumentException("Source directory (" + source.getPath() + ") doesn't exist.");
+        }
+
+        if (destination.exists()) {
+            throw new IllegalArgumentException("Destination (" + destination.getPath() + ") exists.");
+        }
+    }
+
+    /**
+     * Returns whether a folder cloned with this strategy can be written to
+     * (and saved) without modifying the source folder
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return {@code true} if cloned folders are independent of the source
+     */
+    public boolean isWritable() {
+        return this.writable;
+    }
+
+    /**
+     * Returns whether this strategy clones one file at a time, and so
+     * benefits from cloning many files concurrently
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return {@code false} if a whole tree is cloned in one operation
+     */
+    boolean isPerFile() {
+        return true;
+    }
+
+    /**
+     * Checks whether this strategy works between two directories, by
+     * cloning a small probe file from one to the other
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param source A directory on the source filesystem
+     * @param destination A directory on the destination filesystem
+     * @return {@code true} if this strategy can be used
+     */
+    public boolean isSupported(File source, File destination) {
+        if (this == COPY) {
+            return true;
+        }
+        File probe = null;
+        File target = null;
+        try {
+            probe = File.createTempFile("clone-probe", ".mca", source);
+            Files.write(probe.toPath(), new byte[]{1});
+            target = new File(destination, probe.getName());
+            this.cloneFile(probe, target);
+            return target.isFile();
+        } catch (IOException ex) {
+            return false;
+        } finally {
+            if (target != null) {
+                target.delete();
+            }
+            if (probe != null) {
+                probe.delete();
+            }
+        }
+    }
+
+    /**
+     * Selects the cheapest strategy that can be used between two
+     * directories. {@link #HARD_LINK} is only selected when it is requested,
+     * since it is not safe for worlds that save chunks
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param requested A strategy name to prefer, or "AUTO" to detect one
+     * @param source A directory on the source filesystem
+     * @param destination A directory on the destination filesystem
+     * @return The {@link CloneStrategy} to use
+     */
+    public static CloneStrategy detect(String requested, File source, File destination) {
+        CloneStrategy want = Arrays.stream(CloneStrategy.values())
+                .filter(c -> c.name().equalsIgnoreCase(requested)).findFirst().orElse(null);
+        if (want != null && want.isSupported(source, destination)) {
+            return want;
+        }
+        return REFLINK.isSupported(source, destination) ? REFLINK : COPY;
+    }
+
+    /**
+     * Reflinks a file or directory tree with {@code cp}, since the FICLONE
+     * ioctl is not reachable from Java
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param source The source {@link File}
+     * @param destination The destination, which must not exist yet
+     * @param recursive Whether to clone a whole directory tree
+     * @throws IOException If {@code cp} fails or the filesystem does not
+     *                     support reflinks
+     */
+    private static void reflink(File source, File destination, boolean recursive) throws IOException {
+        ProcessBuilder pb = recursive
+                ? new ProcessBuilder("cp", "-R", "--reflink=always", "--preserve=timestamps", source.getPath(), destination.getPath())
+                : new ProcessBuilder("cp", "--reflink=always", "--preserve=timestamps", source.getPath(), destination.getPath());
+        //GNU cp only, so /dev/null is always present when this can succeed
+        Process proc = pb.redirectErrorStream(true).redirectOutput(new File("/dev/null")).start();
+        try {
+            if (!proc.waitFor(5, TimeUnit.MINUTES)) {
+                proc.destroy();
+                throw new IOException("Timed out reflinking " + source.getPath());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reflinking " + source.getPath(), ex);
+        }
+        if (proc.exitValue() != 0) {
+            throw new IOException("Unable to reflink " + source.getPath() + " (exit code " + proc.exitValue() + ")");
+        }
+    }
+
+    /**
+     * Returns whether a {@link File} holds region (chunk) data
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param file The {@link File} to check
+     * @return {@code true} for .mca and .mcr files
+     */
+    static boolean isRegionFile(File file) {
+        String name = file.getName();
+        return name.endsWith(".mca") || name.endsWith(".mcr");
+    }
+
+}
@@ -46,7 +46,7 @@ public class EditSession extends Arena {
      * @param arena The {@link Arena} being edited
      */
     EditSession(Arena arena) {
-        super(arena.getWorld(), arena.getOriginalLocation());
+        super(arena.getWorld(), arena.getOriginalLocation(), arena.getTemplate());
     }
 
     /**
@@ -59,7 +59,7 @@ public class EditSession extends Arena {
      * @return {@code true} if added, {@code false} otherwise
      */
     public boolean addSpawn(Location spawn) {
-        return this.spawns.add(spawn);
+        return this.spawnList().add(spawn);
     }
 
     /**
@@ -72,31 +72,39 @@ public class EditSession extends Arena {
      * @return {@code true} if added, {@code false} otherwise
      */
     public boolean addProtectedWall(CuboidRegion wall) {
-        return this.protect.add(wall);
+        boolean back = this.protectList().add(wall);
+        if (back && this.index != null) {
+            this.index.add(wall);
+        }
+        return back;
     }
 
     public CuboidRegion delProtectedWall(int index) {
-        return this.protect.remove(index);
+        CuboidRegion back = this.protectList().remove(index);
+        if (this.index != null) {
+            this.index.remove(back);
+        }
+        return back;
     }
     
     public void writeConfigValues() {
         List<SCuboidRegion> protects = new ArrayList<>();
         List<SLocation> respawns = new ArrayList<>();
-        this.protect.stream().map(SCuboidRegion::new).forEach(protects::add);
-        this.spawns.stream().map(SLocation::new).forEach(respawns::add);
+        this.protectList().stream().map(SCuboidRegion::new).forEach(protects::add);
+        this.spawnList().stream().map(SLocation::new).forEach(respawns::add);
         Config.retrieve(this.getConfig(), ArenaConfig.PROTECT_LOCATIONS).set(protects);
         Config.retrieve(this.getConfig(), ArenaConfig.SPAWN_LOCATIONS).set(respawns);
     }
     
     public String verifyConfig() {
         int teams = Config.retrieve(this.getConfig(), ArenaConfig.TEAM_COUNT).as(int.class);
-        if (this.spawns.size() <= 0) {
+        if (this.spawnList().size() <= 0) {
             return MinigameLang.ARENA_SESSION_NO_SPAWN.format();
         }
         if (teams <= 0) {
             return MinigameLang.ARENA_SESSION_INT.format("Number of teams", "non-zero");
         }
-        if (teams != this.spawns.size()) {
+        if (teams != this.spawnList().size()) {
             return MinigameLang.ARENA_SESSION_TEAMSPAWNS.format();
         }
         if (Config.retrieve(this.getConfig(), ArenaConfig.TEAM_SIZE).as(int.class) <= 0) {
@@ -118,7 +126,7 @@ public class EditSession extends Arena {
     }
     
     public Location delSpawn(int index) {
-        return this.spawns.remove(index);
+        return this.spawnList().remove(index);
     }
 
 }
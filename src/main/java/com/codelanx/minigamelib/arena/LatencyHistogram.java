@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.arena;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free latency histogram with log-linear buckets, in the style of
+ * HdrHistogram. Values below 32 are counted exactly; above that, every power
+ * of two is split into 32 equal buckets, so any recorded value is reported
+ * within about 3% of its true value. Values are in nanoseconds, and anything
+ * above roughly 70 minutes is counted in the last bucket.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class LatencyHistogram {
+
+    /** Number of bits used to split each power of two */
+    private static final int SUB_BITS = 5;
+    /** Number of buckets each power of two is split into */
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    /** Number of powers of two covered above the exact range */
+    private static final int MAGNITUDES = 37;
+    /** The largest value that gets a bucket of its own */
+    private static final long MAX_TRACKABLE = (1L << (SUB_BITS + MAGNITUDES)) - 1;
+    /** Recorded values per bucket */
+    private final AtomicLongArray counts = new AtomicLongArray(SUB_COUNT * (MAGNITUDES + 1));
+    /** Number of recorded values */
+    private final AtomicLong count = new AtomicLong();
+    /** Sum of recorded values */
+    private final AtomicLong sum = new AtomicLong();
+    /** Largest recorded value */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a value
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param nanos The value to record, in nanoseconds
+     */
+    public void record(long nanos) {
+        long v = Math.max(0, nanos);
+        this.counts.incrementAndGet(LatencyHistogram.indexOf(Math.min(v, MAX_TRACKABLE)));
+        this.count.incrementAndGet();
+        this.sum.addAndGet(v);
+        this.max.accumulateAndGet(v, Math::max);
+    }
+
+    /**
+     * Returns the number of recorded values
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of recorded values
+     */
+    public long getCount() {
+        return this.count.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The mean, in nanoseconds, or 0 if nothing was recorded
+     */
+    public double getMean() {
+        long c = this.count.get();
+        return c == 0 ? 0 : (double) this.sum.get() / c;
+    }
+
+    /**
+     * Returns the largest recorded value
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The maximum, in nanoseconds
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * Returns the value below which a fraction of the recorded values fall.
+     * The result is the upper end of the bucket the percentile lands in, so
+     * it never under-reports.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param fraction The percentile as a fraction, such as 0.99
+     * @return The percentile, in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getPercentile(double fraction) {
+        long total = 0;
+        long[] snapshot = new long[this.counts.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = this.counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(1, Math.max(0, fraction)) * total));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= target) {
+                return Math.min(LatencyHistogram.highestEquivalent(i), this.max.get());
+            }
+        }
+        return this.max.get();
+    }
+
+    /**
+     * Clears every recorded value
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void reset() {
+        for (int i = 0; i < this.counts.length(); i++) {
+            this.counts.set(i, 0);
+        }
+        this.count.set(0);
+        this.sum.set(0);
+        this.max.set(0);
+    }
+
+    /**
+     * Returns the bucket a value is counted in
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param v A value between 0 and {@link #MAX_TRACKABLE}
+     * @return The bucket index
+     */
+    static int indexOf(long v) {
+        if (v < SUB_COUNT) {
+            return (int) v;
+        }
+        int e = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+        return SUB_COUNT + e * SUB_COUNT + (int) ((v >>> e) - SUB_COUNT);
+    }
+
+    /**
+     * Returns the largest value counted in a bucket
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param index The bucket index
+     * @return The upper end of the bucket
+     */
+    static long highestEquivalent(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int e = (index - SUB_COUNT) / SUB_COUNT;
+        long sub = SUB_COUNT + (index - SUB_COUNT) % SUB_COUNT;
+        return ((sub + 1) << e) - 1;
+    }
+
+}
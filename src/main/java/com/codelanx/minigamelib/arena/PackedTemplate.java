@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.arena;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads and writes packed arena templates: a single file holding every file
+ * of a template world folder behind an offset table. A packed template is
+ * unpacked through a single open channel, avoiding a directory listing and
+ * a file open per template file. The pack is never mapped, so it can be
+ * replaced by a repack as soon as an unpack finishes.
+ *
+ * <p>
+ * Layout (big endian): the magic {@code MGLP}, a format version, the number
+ * of directories followed by their relative paths, then the number of files
+ * followed by a path, modification time, data offset and data length for
+ * each. File data follows the table.</p>
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public final class PackedTemplate {
+
+    /** The file extension used for packed templates */
+    public static final String EXTENSION = ".mglpack";
+    /** "MGLP" */
+    private static final int MAGIC = 0x4D474C50;
+    /** The current format version */
+    private static final int VERSION = 1;
+
+    private PackedTemplate() {
+    }
+
+    /**
+     * Returns where the packed form of a template folder is stored, next to
+     * the folder itself
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The template folder
+     * @return The packed template {@link File}, which may not exist
+     */
+    public static File locate(File template) {
+        return new File(template.getParentFile(), template.getName() + EXTENSION);
+    }
+
+    /**
+     * Packs a world folder into a single file. The pack is written to a
+     * temporary file first and moved into place once complete.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param source The world folder to pack
+     * @param destination The packed template {@link File} to write
+     * @throws IOException Failure to read the folder or write the pack
+     */
+    public static void pack(File source, File destination) throws IOException {
+        if (!source.isDirectory()) {
+            throw new IllegalArgumentException("Source (" + source.getPath() + ") must be a directory.");
+        }
+        Path root = source.toPath();
+        List<Path> dirs;
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            List<Path> all = walk.filter(p -> !p.equals(root)).sorted().collect(Collectors.toList());
+            dirs = all.stream().filter(Files::isDirectory).collect(Collectors.toList());
+            files = all.stream().filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        //Offsets are fixed-width, so the table size does not depend on them
+        long offset = PackedTemplate.table(root, dirs, files, 0).length;
+        byte[] table = PackedTemplate.table(root, dirs, files, offset);
+        File temp = new File(destination.getParentFile(), destination.getName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer head = ByteBuffer.wrap(table);
+            while (head.hasRemaining()) {
+                out.write(head);
+            }
+            for (Path p : files) {
+                try (FileChannel in = FileChannel.open(p, StandardOpenOption.READ)) {
+                    long pos = 0;
+                    long size = in.size();
+                    while (pos < size) {
+                        pos += in.transferTo(pos, size - pos, out);
+                    }
+                }
+            }
+            out.force(true);
+        } catch (IOException | RuntimeException ex) {
+            temp.delete();
+            throw ex;
+        }
+        Files.move(temp.toPath(), destination.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Unpacks a packed template into a new world folder
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param source The packed template {@link File}
+     * @param destination The world folder to create, which must not exist
+     * @throws IOException Failure to read the pack or write the folder, or
+     *                     if the pack is malformed
+     */
+    public static void unpack(File source, File destination) throws IOException {
+        if (destination.exists()) {
+            throw new IllegalArgumentException("Destination (" + destination.getPath() + ") exists.");
+        }
+        //Read through the channel rather than a mapping, which would hold the pack open
+        //until collected and keep a repack from replacing it on Windows
+        try (FileChannel in = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            long size = in.size();
+            DataInputStream table = new DataInputStream(new BufferedInputStream(Channels.newInputStream(in)));
+            if (size < 8 || table.readInt() != MAGIC) {
+                throw new IOException(source.getPath() + " is not a packed template");
+            }
+            int version = table.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported packed template version " + version + " in " + source.getPath());
+            }
+            int dirCount = table.readInt();
+            List<String> dirs = new ArrayList<>();
+            for (int i = 0; i < dirCount; i++) {
+                dirs.add(PackedTemplate.readPath(table));
+            }
+            int fileCount = table.readInt();
+            //Each entry takes at least 26 bytes of table, which bounds a corrupt count
+            if (dirCount < 0 || fileCount < 0 || fileCount > size / 26) {
+                throw new IOException("Corrupt table in " + source.getPath());
+            }
+            List<String> paths = new ArrayList<>(fileCount);
+            long[] entries = new long[fileCount * 3];
+            for (int i = 0; i < fileCount; i++) {
+                String path = PackedTemplate.readPath(table);
+                long modified = table.readLong();
+                long offset = table.readLong();
+                long length = table.readLong();
+                if (offset < 0 || length < 0 || offset + length > size) {
+                    throw new IOException("Corrupt entry for " + path + " in " + source.getPath());
+                }
+                paths.add(path);
+                entries[i * 3] = modified;
+                entries[i * 3 + 1] = offset;
+                entries[i * 3 + 2] = length;
+            }
+            //Every path is checked before anything is written
+            destination.mkdirs();
+            for (String dir : dirs) {
+                new File(destination, dir).mkdirs();
+            }
+            for (int i = 0; i < fileCount; i++) {
+                File target = new File(destination, paths.get(i));
+                long pos = entries[i * 3 + 1];
+                long end = pos + entries[i * 3 + 2];
+                try (FileChannel out = FileChannel.open(target.toPath(),
+                        StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                    while (pos < end) {
+                        long read = in.transferTo(pos, end - pos, out);
+                        if (read <= 0) {
+                            throw new IOException("Truncated entry for " + target.getName() + " in " + source.getPath());
+                        }
+                        pos += read;
+                    }
+                }
+                target.setLastModified(entries[i * 3]);
+            }
+        } catch (EOFException ex) {
+            throw new IOException(source.getPath() + " is truncated", ex);
+        }
+    }
+
+    private static byte[] table(Path root, List<Path> dirs, List<Path> files, long dataStart) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(dirs.size());
+            for (Path p : dirs) {
+                PackedTemplate.writePath(out, root.relativize(p));
+            }
+            out.writeInt(files.size());
+            long offset = dataStart;
+            for (Path p : files) {
+                long size = Files.size(p);
+                PackedTemplate.writePath(out, root.relativize(p));
+                out.writeLong(p.toFile().lastModified());
+                out.writeLong(offset);
+                out.writeLong(size);
+                offset += size;
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writePath(DataOutputStream out, Path relative) throws IOException {
+        //Always store '/' so packs move between platforms
+        byte[] raw = relative.toString().replace(File.separatorChar, '/').getBytes(StandardCharsets.UTF_8);
+        out.writeShort(raw.length);
+        out.write(raw);
+    }
+
+    private static String readPath(DataInputStream in) throws IOException {
+        byte[] raw = new byte[in.readUnsignedShort()];
+        in.readFully(raw);
+        String path = new String(raw, StandardCharsets.UTF_8);
+        if (path.isEmpty() || path.startsWith("/") || path.contains("\\") || path.contains(":")
+                || Arrays.asList(path.split("/")).contains("..")) {
+            throw new IOException("Illegal path in packed template: " + path);
+        }
+        return path.replace('/', File.separatorChar);
+    }
+
+}
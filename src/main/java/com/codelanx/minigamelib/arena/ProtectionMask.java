@@ -0,0 +1,316 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.arena;
+
+import com.codelanx.minigamelib.internal.LongMap;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.bukkit.block.Block;
+
+/**
+ * The protected blocks of every {@link Arena} in one world, as a
+ * 4096-bit mask per 16x16x16 chunk section. Checking a block is one table
+ * lookup and one bit test, however many walls cover it. Sections that are
+ * fully protected share a single mask. Walls are read from each
+ * {@link Arena Arena's} {@link ArenaRegionIndex}, which also limits the
+ * rebuild after a removal to the arenas that reach the cleared sections.
+ * <br><br>
+ * Not thread-safe; meant to be used on the main thread like the events that
+ * query it.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public final class ProtectionMask {
+
+    /** Number of longs in a section mask */
+    private static final int WORDS = 4096 / 64;
+    /** The shared mask of a fully protected section */
+    private static final long[] FULL = new long[WORDS];
+
+    static {
+        Arrays.fill(FULL, -1L);
+    }
+
+    /** The mask of each section touched by a wall, by section key */
+    private final LongMap<long[]> masks = new LongMap<>(64);
+    /** The wall bounds and sections of each {@link Arena}, by identity */
+    private final Map<Arena, Entry> arenas = new IdentityHashMap<>();
+
+    /**
+     * Adds the protected walls of an {@link Arena} to this mask
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param arena The {@link Arena} to protect
+     */
+    public void add(Arena arena) {
+        if (this.arenas.containsKey(arena)) {
+            return;
+        }
+        //Walls are read from the arena's index, which already holds their block bounds
+        ArenaRegionIndex index = arena.getRegionIndex();
+        int[] boxes = index.getBounds();
+        for (int b = 0; b < boxes.length; b += ArenaTemplate.REGION_STRIDE) {
+            boxes[b + 1] = Math.max(0, boxes[b + 1]);
+            boxes[b + 4] = Math.min(255, boxes[b + 4]);
+        }
+        Entry entry = new Entry(index, boxes);
+        for (int i = 0; i < boxes.length; i += ArenaTemplate.REGION_STRIDE) {
+            this.mark(boxes, i, entry, null);
+        }
+        this.arenas.put(arena, entry);
+    }
+
+    /**
+     * Removes the walls of an {@link Arena} from this mask. Sections it
+     * shared with another {@link Arena} are rebuilt from that
+     * {@link Arena Arena's} walls.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param arena The {@link Arena} to stop protecting
+     * @return {@code true} if the {@link Arena} was in this mask
+     */
+    public boolean remove(Arena arena) {
+        Entry entry = this.arenas.remove(arena);
+        if (entry == null) {
+            return false;
+        }
+        long[] cleared = Arrays.copyOf(entry.sections, entry.sectionCount);
+        for (long key : cleared) {
+            this.masks.remove(key);
+        }
+        Arrays.sort(cleared);
+        int[] area = entry.area();
+        for (Entry other : this.arenas.values()) {
+            //Arenas in other cells of a shared world never reach the cleared sections
+            if (area == null || !other.index.intersects(area[0], area[1], area[2], area[3], area[4], area[5])) {
+                continue;
+            }
+            for (int i = 0; i < other.boxes.length; i += ArenaTemplate.REGION_STRIDE) {
+                this.mark(other.boxes, i, null, cleared);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether no {@link Arena} is protected by this mask
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return {@code true} if this mask protects nothing
+     */
+    public boolean isEmpty() {
+        return this.arenas.isEmpty();
+    }
+
+    /**
+     * Returns whether a block is protected
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param x The block x coordinate
+     * @param y The block y coordinate
+     * @param z The block z coordinate
+     * @return {@code true} if the block is inside a protected wall
+     */
+    public boolean isProtected(int x, int y, int z) {
+        if (y < 0 || y > 255) {
+            return false;
+        }
+        return ProtectionMask.test(this.masks.get(ProtectionMask.key(x >> 4, y >> 4, z >> 4)), x, y, z);
+    }
+
+    /**
+     * Returns whether a {@link Block} is protected. The world of the
+     * {@link Block} is not checked.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param block The {@link Block} to check
+     * @return {@code true} if the block is inside a protected wall
+     */
+    public boolean isProtected(Block block) {
+        return this.isProtected(block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * Removes every protected block from a {@link List}, such as the block
+     * list of an explosion. Consecutive blocks in the same section share one
+     * table lookup, and the {@link List} is compacted in a single pass.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param blocks The {@link List} of blocks to filter, which must support
+     *               {@link List#set(int, Object)}
+     * @return The number of blocks removed
+     */
+    public int removeProtected(List<Block> blocks) {
+        int total = blocks.size();
+        int kept = 0;
+        long last = 0;
+        long[] mask = null;
+        for (int i = 0; i < total; i++) {
+            Block b = blocks.get(i);
+            int y = b.getY();
+            if (y >= 0 && y <= 255) {
+                long key = ProtectionMask.key(b.getX() >> 4, y >> 4, b.getZ() >> 4);
+                if (mask == null || key != last) {
+                    mask = this.masks.get(key);
+                    last = key;
+                }
+                if (ProtectionMask.test(mask, b.getX(), y, b.getZ())) {
+                    continue;
+                }
+            }
+            blocks.set(kept++, b);
+        }
+        blocks.subList(kept, total).clear();
+        return total - kept;
+    }
+
+    /**
+     * Sets the bits of one wall, optionally only within a set of sections
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param boxes The wall bounds
+     * @param i The index of the wall in {@code boxes}
+     * @param entry The {@link Entry} to record touched sections in, or
+     *              {@code null}
+     * @param only Sorted section keys to restrict marking to, or
+     *             {@code null} for every section the wall touches
+     */
+    private void mark(int[] boxes, int i, Entry entry, long[] only) {
+        int minX = boxes[i], minY = boxes[i + 1], minZ = boxes[i + 2];
+        int maxX = boxes[i + 3], maxY = boxes[i + 4], maxZ = boxes[i + 5];
+        for (int cx = minX >> 4; cx <= maxX >> 4; cx++) {
+            for (int sy = minY >> 4; sy <= maxY >> 4; sy++) {
+                for (int cz = minZ >> 4; cz <= maxZ >> 4; cz++) {
+                    long key = ProtectionMask.key(cx, sy, cz);
+                    if (only != null && Arrays.binarySearch(only, key) < 0) {
+                        continue;
+                    }
+                    if (entry != null) {
+                        entry.addSection(key);
+                    }
+                    long[] mask = this.masks.get(key);
+                    if (mask == FULL) {
+                        continue;
+                    }
+                    int x0 = Math.max(minX, cx << 4) & 15, x1 = Math.min(maxX, (cx << 4) + 15) & 15;
+                    int y0 = Math.max(minY, sy << 4) & 15, y1 = Math.min(maxY, (sy << 4) + 15) & 15;
+                    int z0 = Math.max(minZ, cz << 4) & 15, z1 = Math.min(maxZ, (cz << 4) + 15) & 15;
+                    if (x0 == 0 && y0 == 0 && z0 == 0 && x1 == 15 && y1 == 15 && z1 == 15) {
+                        this.masks.put(key, FULL);
+                        continue;
+                    }
+                    if (mask == null) {
+                        mask = new long[WORDS];
+                        this.masks.put(key, mask);
+                    }
+                    //Each long holds four rows of 16 x positions
+                    long row = (-1L >>> (63 - (x1 - x0))) << x0;
+                    for (int y = y0; y <= y1; y++) {
+                        for (int z = z0; z <= z1; z++) {
+                            mask[(y << 2) | (z >> 2)] |= row << ((z & 3) << 4);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean test(long[] mask, int x, int y, int z) {
+        if (mask == null) {
+            return false;
+        }
+        return (mask[((y & 15) << 2) | ((z & 15) >> 2)] & (1L << ((z & 3) << 4 | (x & 15)))) != 0;
+    }
+
+    private static long key(int cx, int sy, int cz) {
+        return ((long) (cx & 0xFFFFFFF) << 36) | ((long) (cz & 0xFFFFFFF) << 8) | (sy & 0xFF);
+    }
+
+    /**
+     * The walls of one {@link Arena}, and the sections they touch
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    private static final class Entry {
+
+        private final ArenaRegionIndex index;
+        private final int[] boxes;
+        private long[] sections = new long[16];
+        private int sectionCount;
+
+        private Entry(ArenaRegionIndex index, int[] boxes) {
+            this.index = index;
+            this.boxes = boxes;
+        }
+
+        /**
+         * Returns the bounds of every section the walls touch
+         *
+         * @return minX, minY, minZ, maxX, maxY and maxZ, or {@code null} if
+         *         there are no walls
+         */
+        private int[] area() {
+            if (this.boxes.length == 0) {
+                return null;
+            }
+            int[] back = Arrays.copyOf(this.boxes, ArenaTemplate.REGION_STRIDE);
+            for (int i = ArenaTemplate.REGION_STRIDE; i < this.boxes.length; i += ArenaTemplate.REGION_STRIDE) {
+                for (int j = 0; j < 3; j++) {
+                    back[j] = Math.min(back[j], this.boxes[i + j]);
+                    back[j + 3] = Math.max(back[j + 3], this.boxes[i + j + 3]);
+                }
+            }
+            for (int j = 0; j < 3; j++) {
+                back[j] &= ~15;
+                back[j + 3] |= 15;
+            }
+            return back;
+        }
+
+        private void addSection(long key) {
+            if (this.sectionCount == this.sections.length) {
+                this.sections = Arrays.copyOf(this.sections, this.sectionCount * 2);
+            }
+            this.sections[this.sectionCount++] = key;
+        }
+
+    }
+
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.arena;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+import org.bukkit.World;
+
+/**
+ * Hands out {@link ArenaSlot} cells in a small number of long-lived, shared
+ * void worlds. Cells are laid out in a square grid in each {@link World}, and
+ * a new {@link World} is only created once every cell of the existing ones
+ * is in use.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class SlotAllocator {
+
+    /** Creates the shared world with the given number */
+    private final IntFunction<World> creator;
+    /** The width of a cell, in blocks, always a whole number of chunks */
+    private final int size;
+    /** The number of cells in each {@link World} */
+    private final int perWorld;
+    /** The number of cells along each side of the grid */
+    private final int side;
+    /** The shared worlds, in creation order */
+    private final List<World> worlds = new ArrayList<>();
+    /** The cells in use in each {@link World} */
+    private final List<BitSet> used = new ArrayList<>();
+    /** Number of cells currently handed out */
+    private int inUse;
+
+    /**
+     * {@link SlotAllocator} constructor
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param creator Creates the shared {@link World} with a given number
+     * @param size The width of a cell in blocks, rounded up to whole chunks
+     * @param perWorld The number of cells in each {@link World}
+     */
+    SlotAllocator(IntFunction<World> creator, int size, int perWorld) {
+        this.creator = creator;
+        this.size = Math.max(16, (size + 15) & ~15);
+        this.perWorld = Math.max(1, perWorld);
+        this.side = (int) Math.ceil(Math.sqrt(this.perWorld));
+    }
+
+    /**
+     * Returns whether a template fits in a single cell
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The {@link ArenaTemplate} to check
+     * @return {@code true} if the template's bounds fit in a cell
+     */
+    public boolean fits(ArenaTemplate template) {
+        int[] bounds = template.getBounds();
+        if (bounds == null) {
+            return false;
+        }
+        //Templates are placed on a chunk boundary, so measure from the chunk
+        return bounds[3] - (bounds[0] & ~15) < this.size && bounds[5] - (bounds[2] & ~15) < this.size;
+    }
+
+    /**
+     * Reserves a cell for a template, creating a new shared {@link World} if
+     * every cell is in use. Must be called on the main thread.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The {@link ArenaTemplate} that will fill the cell
+     * @return A new {@link ArenaSlot}
+     */
+    public synchronized ArenaSlot allocate(ArenaTemplate template) {
+        if (!this.fits(template)) {
+            throw new IllegalArgumentException("Arena '" + template.getName() + "' does not fit in a slot");
+        }
+        int w = 0;
+        int index = -1;
+        for (; w < this.worlds.size(); w++) {
+            index = this.used.get(w).nextClearBit(0);
+            if (index < this.perWorld) {
+                break;
+            }
+        }
+        if (w == this.worlds.size()) {
+            this.worlds.add(this.creator.apply(w));
+            this.used.add(new BitSet(this.perWorld));
+            index = 0;
+        }
+        this.used.get(w).set(index);
+        this.inUse++;
+        int[] bounds = template.getBounds();
+        int x = (index % this.side) * this.size;
+        int z = (index / this.side) * this.size;
+        return new ArenaSlot(this.worlds.get(w), index, x, z, this.size, x - (bounds[0] & ~15), z - (bounds[2] & ~15));
+    }
+
+    /**
+     * Returns a cell so it can be handed out again. The cell must already
+     * have been cleared.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param slot The {@link ArenaSlot} to release
+     */
+    public synchronized void release(ArenaSlot slot) {
+        int w = this.worlds.indexOf(slot.getWorld());
+        if (w >= 0 && this.used.get(w).get(slot.getIndex())) {
+            this.used.get(w).clear(slot.getIndex());
+            this.inUse--;
+        }
+    }
+
+    /**
+     * Forgets every shared {@link World}, returning them so they can be
+     * unloaded
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The shared worlds that were in use
+     */
+    synchronized List<World> clear() {
+        List<World> back = new ArrayList<>(this.worlds);
+        this.worlds.clear();
+        this.used.clear();
+        this.inUse = 0;
+        return back;
+    }
+
+    /**
+     * Returns the shared worlds created so far
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return An unmodifiable copy of the shared worlds
+     */
+    public synchronized List<World> getWorlds() {
+        return Collections.unmodifiableList(new ArrayList<>(this.worlds));
+    }
+
+    /**
+     * Returns the width of a cell
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The cell width, in blocks
+     */
+    public int getSlotSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns the number of cells in each shared {@link World}
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of cells per {@link World}
+     */
+    public int getSlotsPerWorld() {
+        return this.perWorld;
+    }
+
+    /**
+     * Returns the number of cells currently handed out
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of cells in use
+     */
+    public synchronized int getSlotsInUse() {
+        return this.inUse;
+    }
+
+}
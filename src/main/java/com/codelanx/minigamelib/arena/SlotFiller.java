@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.arena;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Places the blocks of an arena template into an {@link ArenaSlot}, and
+ * removes them again once the slot is no longer needed. Both operations are
+ * started on the main thread, may be spread over several ticks, and complete
+ * their {@link CompletableFuture} on the main thread.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public interface SlotFiller {
+
+    /**
+     * Copies a template's blocks into an empty {@link ArenaSlot}
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param slot The {@link ArenaSlot} to fill
+     * @param template The template folder
+     * @param meta The parsed metadata of the template
+     * @return A {@link CompletableFuture} completed once the slot is filled
+     */
+    public CompletableFuture<Void> fill(ArenaSlot slot, File template, ArenaTemplate meta);
+
+    /**
+     * Removes every block and non-player entity a game left in an
+     * {@link ArenaSlot}, so it can be filled again
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param slot The {@link ArenaSlot} to clear
+     * @param meta The parsed metadata of the template the slot was filled with
+     * @return A {@link CompletableFuture} completed once the slot is empty
+     */
+    public CompletableFuture<Void> clear(ArenaSlot slot, ArenaTemplate meta);
+
+    /**
+     * Returns a filled {@link ArenaSlot} to the state of its template. By
+     * default this clears the slot and fills it again.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param slot The {@link ArenaSlot} to reset
+     * @param template The template folder
+     * @param meta The parsed metadata of the template
+     * @return A {@link CompletableFuture} completed once the slot is reset
+     */
+    default public CompletableFuture<Void> reset(ArenaSlot slot, File template, ArenaTemplate meta) {
+        return this.clear(slot, meta).thenCompose(v -> this.fill(slot, template, meta));
+    }
+
+    /**
+     * Drops anything cached for a template that changed or was removed
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The name of the template
+     */
+    default public void invalidate(String template) {
+    }
+
+}
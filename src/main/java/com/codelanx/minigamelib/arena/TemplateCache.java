@@ -0,0 +1,299 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.arena;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the files of recently used arena templates resident in off-heap
+ * buffers, so that new instances can be written without re-reading the
+ * template folder. The least recently used templates are evicted once the
+ * cache grows past its capacity.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class TemplateCache {
+
+    /** Maximum number of bytes held by this cache */
+    private final long capacity;
+    /** Cached templates in access order, keyed by lowercase template name */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75F, true);
+    /** Number of bytes currently held */
+    private long size;
+    /** Number of writes served from memory */
+    private long hits;
+    /** Number of writes that had to read the template first */
+    private long misses;
+    /** Number of templates evicted to make room */
+    private long evictions;
+
+    /**
+     * {@link TemplateCache} constructor
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param capacityMegabytes The maximum size of this cache in megabytes
+     */
+    public TemplateCache(long capacityMegabytes) {
+        this.capacity = capacityMegabytes * 1024 * 1024;
+    }
+
+    /**
+     * Writes a cached template into a new folder, reading the template into
+     * the cache first if it is not resident
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The template folder
+     * @param destination The folder to write, which must not exist yet
+     * @return {@code false} if the template is too large to cache, in which
+     *         case nothing is written
+     * @throws IOException Failure to read the template or write the folder
+     */
+    public boolean write(File template, File destination) throws IOException {
+        Entry entry = this.get(template);
+        if (entry == null) {
+            return false;
+        }
+        if (destination.exists()) {
+            throw new IllegalArgumentException("Destination (" + destination.getPath() + ") exists.");
+        }
+        destination.mkdirs();
+        for (String dir : entry.dirs) {
+            new File(destination, dir).mkdirs();
+        }
+        for (CachedFile file : entry.files) {
+            File target = new File(destination, file.path);
+            ByteBuffer data = file.data.duplicate();
+            try (FileChannel out = FileChannel.open(target.toPath(),
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                while (data.hasRemaining()) {
+                    out.write(data);
+                }
+            }
+            target.setLastModified(file.modified);
+        }
+        return true;
+    }
+
+    /**
+     * Drops a template from this cache, e.g. after it has been edited
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param name The name of the template
+     */
+    public synchronized void invalidate(String name) {
+        Entry old = this.entries.remove(name.toLowerCase());
+        if (old != null) {
+            this.size -= old.bytes;
+        }
+    }
+
+    private Entry get(File template) throws IOException {
+        String key = template.getName().toLowerCase();
+        synchronized (this) {
+            Entry back = this.entries.get(key);
+            if (back != null) {
+                this.hits++;
+                return back;
+            }
+            this.misses++;
+        }
+        Entry back = TemplateCache.read(template, this.capacity);
+        if (back == null) {
+            return null;
+        }
+        synchronized (this) {
+            Entry old = this.entries.put(key, back);
+            if (old != null) {
+                this.size -= old.bytes;
+            }
+            this.size += back.bytes;
+            Iterator<Map.Entry<String, Entry>> itr = this.entries.entrySet().iterator();
+            while (this.size > this.capacity && itr.hasNext()) {
+                Map.Entry<String, Entry> eldest = itr.next();
+                if (eldest.getValue() == back) {
+                    continue;
+                }
+                itr.remove();
+                this.size -= eldest.getValue().bytes;
+                this.evictions++;
+            }
+        }
+        return back;
+    }
+
+    private static Entry read(File template, long limit) throws IOException {
+        Path root = template.toPath();
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(root)) {
+            paths = walk.filter(p -> !p.equals(root)).collect(Collectors.toList());
+        }
+        long total = 0;
+        for (Path p : paths) {
+            if (Files.isRegularFile(p)) {
+                total += Files.size(p);
+            }
+        }
+        if (total > limit) {
+            return null;
+        }
+        List<String> dirs = new ArrayList<>();
+        List<CachedFile> files = new ArrayList<>();
+        for (Path p : paths) {
+            String rel = root.relativize(p).toString();
+            if (Files.isDirectory(p)) {
+                dirs.add(rel);
+                continue;
+            }
+            try (FileChannel in = FileChannel.open(p, StandardOpenOption.READ)) {
+                ByteBuffer buf = ByteBuffer.allocateDirect((int) in.size());
+                while (buf.hasRemaining() && in.read(buf) >= 0);
+                buf.flip();
+                files.add(new CachedFile(rel, buf.asReadOnlyBuffer(), p.toFile().lastModified()));
+            }
+        }
+        return new Entry(dirs, files, files.stream().mapToLong(f -> f.data.capacity()).sum());
+    }
+
+    /**
+     * Returns the maximum number of bytes this cache will hold
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The capacity in bytes
+     */
+    public long getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the number of bytes currently held
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The size of this cache in bytes
+     */
+    public synchronized long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns the names of the templates currently resident, least recently
+     * used first
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return A {@link Set} of lowercase template names
+     */
+    public synchronized Set<String> getResident() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(this.entries.keySet()));
+    }
+
+    /**
+     * Returns the number of instance writes served from memory
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of cache hits
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the number of instance writes that read the template first
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of cache misses
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Returns the number of templates evicted to stay under capacity
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of evictions
+     */
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    private static class Entry {
+
+        private final List<String> dirs;
+        private final List<CachedFile> files;
+        private final long bytes;
+
+        private Entry(List<String> dirs, List<CachedFile> files, long bytes) {
+            this.dirs = dirs;
+            this.files = files;
+            this.bytes = bytes;
+        }
+
+    }
+
+    private static class CachedFile {
+
+        private final String path;
+        private final ByteBuffer data;
+        private final long modified;
+
+        private CachedFile(String path, ByteBuffer data, long modified) {
+            this.path = path;
+            this.data = data;
+            this.modified = modified;
+        }
+
+    }
+
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.arena;
+
+import com.codelanx.codelanxlib.util.Debugger;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * A case-insensitive index of arena template folders. The worlds folder is
+ * watched for changes, so templates can be added, removed or replaced
+ * without a restart.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class TemplateCatalog {
+
+    /** How long a template must go without changes before it is reloaded */
+    private static final long QUIET_MILLIS = 500;
+    /** The folder holding every template */
+    private final File root;
+    /** Template folders keyed by lowercase name */
+    private final Map<String, File> index = new ConcurrentHashMap<>();
+    /** An immutable snapshot of the template folders, for listing and random picks */
+    private volatile List<File> snapshot = Collections.emptyList();
+    /** Watched directories, mapped to the template they belong to (or null for the root) */
+    private final Map<WatchKey, String> keys = new HashMap<>();
+    /** Template names with changes not yet handled */
+    private final Set<String> dirty = new HashSet<>();
+    /** Runs change callbacks, on the main thread */
+    private final Executor callbacks;
+    private final Consumer<File> onAdded;
+    private final Consumer<File> onRemoved;
+    private final Consumer<File> onChanged;
+    private WatchService watcher;
+    private Thread thread;
+
+    /**
+     * {@link TemplateCatalog} constructor. Builds the index from the
+     * current contents of the worlds folder, without firing any callbacks.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param root The folder holding every template
+     * @param callbacks The {@link Executor} to run change callbacks on
+     * @param onAdded Called when a new template appears
+     * @param onRemoved Called when a template is deleted
+     * @param onChanged Called when the files of a template change
+     */
+    TemplateCatalog(File root, Executor callbacks, Consumer<File> onAdded, Consumer<File> onRemoved, Consumer<File> onChanged) {
+        this.root = root;
+        this.callbacks = callbacks;
+        this.onAdded = onAdded;
+        this.onRemoved = onRemoved;
+        this.onChanged = onChanged;
+        File[] f = root.listFiles(d -> d.isDirectory() && !TemplateCatalog.isHidden(d.getName()));
+        if (f != null) {
+            for (File dir : f) {
+                this.index.put(dir.getName().toLowerCase(), dir);
+            }
+        }
+        this.rebuildSnapshot();
+    }
+
+    /**
+     * Finds a template folder by name, ignoring case
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param name The name of the template
+     * @return The template folder, or {@code null} if there is none
+     */
+    public File get(String name) {
+        return name == null ? null : this.index.get(name.toLowerCase());
+    }
+
+    /**
+     * Returns a random template folder
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return A template folder, or {@code null} if there are none
+     */
+    public File random() {
+        List<File> all = this.snapshot;
+        return all.isEmpty() ? null : all.get(ThreadLocalRandom.current().nextInt(all.size()));
+    }
+
+    /**
+     * Returns every template folder
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return An unmodifiable {@link List} of template folders
+     */
+    public List<File> getAll() {
+        return this.snapshot;
+    }
+
+    /**
+     * Returns whether there are no templates at all
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return {@code true} if the catalog is empty
+     */
+    public boolean isEmpty() {
+        return this.index.isEmpty();
+    }
+
+    /**
+     * Adds a template folder created by this plugin, without waiting for
+     * the watcher to notice it
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The new template folder
+     */
+    void add(File template) {
+        this.index.put(template.getName().toLowerCase(), template);
+        this.rebuildSnapshot();
+        synchronized (this.keys) {
+            this.watch(template);
+        }
+    }
+
+    /**
+     * Starts watching the worlds folder on a background thread
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @throws IOException If the platform does not support watching the folder
+     */
+    void start() throws IOException {
+        this.watcher = FileSystems.getDefault().newWatchService();
+        synchronized (this.keys) {
+            this.keys.put(this.register(this.root.toPath()), null);
+            this.index.values().forEach(this::watch);
+        }
+        this.thread = new Thread(this::run, "MinigameLib-TemplateWatcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Stops watching the worlds folder
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    void stop() {
+        if (this.watcher == null) {
+            return;
+        }
+        try {
+            this.watcher.close();
+        } catch (IOException ex) {
+            Debugger.error(ex, "Error closing template watcher!");
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = this.watcher.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    this.flush();
+                    continue;
+                }
+                String owner;
+                synchronized (this.keys) {
+                    owner = this.keys.get(key);
+                }
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        synchronized (this.dirty) {
+                            this.dirty.addAll(this.index.keySet());
+                        }
+                        continue;
+                    }
+                    //Events in the root name a template, events below it belong to their template
+                    String name = owner == null ? ((Path) event.context()).getFileName().toString() : owner;
+                    synchronized (this.dirty) {
+                        this.dirty.add(name);
+                    }
+                }
+                if (!key.reset()) {
+                    synchronized (this.keys) {
+                        this.keys.remove(key);
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ex) {
+            //Stopped
+        }
+    }
+
+    /**
+     * Handles every template that has changed since the last quiet period
+     */
+    private void flush() {
+        List<String> names;
+        synchronized (this.dirty) {
+            if (this.dirty.isEmpty()) {
+                return;
+            }
+            names = new ArrayList<>(this.dirty);
+            this.dirty.clear();
+        }
+        for (String name : names) {
+            if (TemplateCatalog.isHidden(name)) {
+                continue;
+            }
+            File folder = new File(this.root, name);
+            String key = name.toLowerCase();
+            File known = this.index.get(key);
+            if (!folder.isDirectory()) {
+                if (known != null && !known.isDirectory() && this.index.remove(key, known)) {
+                    this.rebuildSnapshot();
+                    this.callbacks.execute(() -> this.onRemoved.accept(known));
+                }
+            } else if (known == null) {
+                this.add(folder);
+                this.callbacks.execute(() -> this.onAdded.accept(folder));
+            } else {
+                synchronized (this.keys) {
+                    this.watch(known);
+                }
+                this.callbacks.execute(() -> this.onChanged.accept(known));
+            }
+        }
+    }
+
+    /**
+     * Watches a template folder and its immediate subfolders (such as
+     * {@code region}). Must hold the lock on {@code keys}.
+     */
+    private void watch(File template) {
+        if (this.watcher == null) {
+            return;
+        }
+        String name = template.getName();
+        try {
+            this.keys.put(this.register(template.toPath()), name);
+            File[] subs = template.listFiles(File::isDirectory);
+            if (subs != null) {
+                for (File sub : subs) {
+                    this.keys.put(this.register(sub.toPath()), name);
+                }
+            }
+        } catch (IOException | ClosedWatchServiceException ex) {
+            Debugger.error(ex, "Unable to watch arena template '%s' for changes", name);
+        }
+    }
+
+    private WatchKey register(Path path) throws IOException {
+        return path.register(this.watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    /**
+     * Returns whether a folder name is reserved for staging and backups
+     * rather than being a template
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param name The folder name
+     * @return {@code true} for names starting with a dot
+     */
+    static boolean isHidden(String name) {
+        return name.startsWith(".");
+    }
+
+    private void rebuildSnapshot() {
+        List<File> all = new ArrayList<>(this.index.values());
+        all.sort((a, b) -> a.getName().compareToIgnoreCase(b.getName()));
+        this.snapshot = Collections.unmodifiableList(all);
+    }
+
+}
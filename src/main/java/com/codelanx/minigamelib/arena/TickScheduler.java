@@ -0,0 +1,543 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.arena;
+
+import com.codelanx.codelanxlib.util.Debugger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * A queue of main-thread work that is run in time slices. Every tick, jobs
+ * are run in priority order until the tick's time budget is used up, and
+ * whatever is left waits for the next tick. Long jobs are submitted as a
+ * series of small steps, and jobs of the same priority take turns, one step
+ * at a time. Jobs can also share a {@link Quota}, which caps how much of
+ * one kind of work, such as chunk loads, is done in a single tick no matter
+ * how much time is left.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class TickScheduler implements Runnable {
+
+    /**
+     * The order in which queued work is run. Work of a higher priority is
+     * always run before any work of a lower priority.
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    public static enum Priority {
+        /** Work players are directly waiting on, such as teleports */
+        PLAYER,
+        /** Preparing arenas, such as loading worlds and filling slots */
+        PROVISION,
+        /** Tearing arenas down, such as unloading worlds and clearing slots */
+        CLEANUP;
+    }
+
+    /**
+     * A cap on how much of one kind of work is done per tick, shared by every
+     * job submitted with it. Jobs whose {@link Quota} is used up wait for the
+     * next tick, even if the time budget is not. Only used on the main thread.
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    public static final class Quota {
+
+        /** Units of work allowed per tick, or 0 for no limit */
+        private final int limit;
+        /** The tick {@link #used} belongs to */
+        private long tick = -1;
+        /** Units of work done so far this tick */
+        private int used;
+
+        /**
+         * {@link Quota} constructor
+         *
+         * @since 1.0.0
+         * @version 1.0.0
+         *
+         * @param limit The units of work allowed per tick, or 0 or less for
+         *              no limit
+         */
+        public Quota(int limit) {
+            this.limit = Math.max(0, limit);
+        }
+
+        /**
+         * Records work done by a step. Called from the step itself.
+         *
+         * @since 1.0.0
+         * @version 1.0.0
+         *
+         * @param amount The units of work done
+         */
+        public void use(int amount) {
+            this.used += amount;
+        }
+
+        /**
+         * Returns the units of work allowed per tick
+         *
+         * @since 1.0.0
+         * @version 1.0.0
+         *
+         * @return The limit, or 0 if there is none
+         */
+        public int getLimit() {
+            return this.limit;
+        }
+
+        private boolean isSpent(long tick) {
+            if (this.tick != tick) {
+                this.tick = tick;
+                this.used = 0;
+            }
+            return this.limit > 0 && this.used >= this.limit;
+        }
+
+    }
+
+    /** The {@link Plugin} the tick task runs under */
+    private final Plugin plugin;
+    /** Time available for queued work each tick, in nanoseconds */
+    private final long budget;
+    /** Pending jobs, one queue per {@link Priority} */
+    private final Queue<Job>[] queues;
+    /** Number of pending jobs per {@link Priority} */
+    private final AtomicInteger[] depth;
+    /** The repeating tick task, or {@code null} if not started */
+    private BukkitTask task;
+    /** Number of times the tick task has run */
+    private long ticks;
+    /** Whether new work is refused, after {@link #stop()} */
+    private boolean stopped;
+    /** Time spent on the most recent tick, in nanoseconds */
+    private volatile long lastTick;
+    /** Longest time spent on a single tick, in nanoseconds */
+    private volatile long maxTick;
+    /** Total time spent running work, in nanoseconds */
+    private volatile long totalTime;
+    /** Number of ticks that ran any work */
+    private volatile long busyTicks;
+    /** Number of ticks that went over the time budget */
+    private volatile long overruns;
+    /** Number of steps run */
+    private volatile long steps;
+
+    /**
+     * {@link TickScheduler} constructor
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param plugin The {@link Plugin} to run the tick task under
+     * @param budget The time available for queued work each tick, in
+     *               milliseconds
+     */
+    @SuppressWarnings("unchecked")
+    TickScheduler(Plugin plugin, double budget) {
+        this.plugin = plugin;
+        this.budget = (long) (Math.max(0.1, budget) * 1000000L);
+        Priority[] all = Priority.values();
+        this.queues = new Queue[all.length];
+        this.depth = new AtomicInteger[all.length];
+        for (int i = 0; i < all.length; i++) {
+            this.queues[i] = new ConcurrentLinkedQueue<>();
+            this.depth[i] = new AtomicInteger();
+        }
+    }
+
+    /**
+     * Starts running queued work every tick
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    synchronized void start() {
+        this.stopped = false;
+        if (this.task == null) {
+            this.task = this.plugin.getServer().getScheduler().runTaskTimer(this.plugin, this, 1L, 1L);
+        }
+    }
+
+    /**
+     * Stops running queued work and refuses any more. Jobs still queued by
+     * {@link #submit(Priority, BooleanSupplier)} are dropped and their futures
+     * completed with a {@link CancellationException}. Work still queued on an
+     * {@link #executor(Priority)} is run at once instead, since it usually
+     * completes a {@link CompletableFuture} someone is waiting on. Any work
+     * it queues in turn is refused, so whatever depends on it completes
+     * exceptionally rather than never. Must be called on the main thread.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    void stop() {
+        List<Job> dropped = new ArrayList<>();
+        synchronized (this) {
+            this.stopped = true;
+            if (this.task != null) {
+                this.task.cancel();
+                this.task = null;
+            }
+            for (int i = 0; i < this.queues.length; i++) {
+                Job job;
+                while ((job = this.queues[i].poll()) != null) {
+                    this.depth[i].decrementAndGet();
+                    dropped.add(job);
+                }
+            }
+        }
+        dropped.forEach(Job::drop);
+    }
+
+    /**
+     * Returns an {@link Executor} that queues work at a {@link Priority}.
+     * May be used from any thread. Once this scheduler is stopped, the
+     * {@link Executor} throws a {@link RejectedExecutionException}.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param priority The {@link Priority} of the work
+     * @return An {@link Executor} for the main thread
+     */
+    public Executor executor(Priority priority) {
+        return r -> {
+            if (!this.enqueue(priority, new Job(() -> {
+                r.run();
+                return true;
+            }, null, null))) {
+                throw new RejectedExecutionException("Tick scheduler stopped");
+            }
+        };
+    }
+
+    /**
+     * Queues a job made of many small steps. The step is run repeatedly,
+     * taking turns with other jobs of the same {@link Priority}, until it
+     * returns {@code true}. May be called from any thread.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param priority The {@link Priority} of the job
+     * @param step Runs one step of the job, returning {@code true} once the
+     *             job is finished
+     * @return A {@link CompletableFuture} completed on the main thread once
+     *         the job is finished, or exceptionally if a step throws or this
+     *         scheduler is stopped first
+     */
+    public CompletableFuture<Void> submit(Priority priority, BooleanSupplier step) {
+        return this.submit(priority, null, step);
+    }
+
+    /**
+     * Queues a job made of many small steps that share a {@link Quota}. Once
+     * the {@link Quota} is used up for a tick, no more steps of the job run
+     * until the next tick. The step records its own work with
+     * {@link Quota#use(int)}. May be called from any thread.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param priority The {@link Priority} of the job
+     * @param quota The {@link Quota} the job counts against, or {@code null}
+     * @param step Runs one step of the job, returning {@code true} once the
+     *             job is finished
+     * @return A {@link CompletableFuture} completed on the main thread once
+     *         the job is finished, or exceptionally if a step throws or this
+     *         scheduler is stopped first
+     */
+    public CompletableFuture<Void> submit(Priority priority, Quota quota, BooleanSupplier step) {
+        Job job = new Job(step, new CompletableFuture<>(), quota);
+        if (!this.enqueue(priority, job)) {
+            job.drop();
+        }
+        return job.done;
+    }
+
+    private synchronized boolean enqueue(Priority priority, Job job) {
+        if (this.stopped) {
+            return false;
+        }
+        this.depth[priority.ordinal()].incrementAndGet();
+        this.queues[priority.ordinal()].add(job);
+        return true;
+    }
+
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        long deadline = start + this.budget;
+        long now = start;
+        long tick = ++this.ticks;
+        int ran = 0;
+        //Jobs per queue that are waiting on a used up quota until next tick
+        int[] parked = new int[this.queues.length];
+        for (int i = 0; i < this.queues.length && now < deadline; i++) {
+            int queue = i;
+            List<Job> waiting = null;
+            Job job;
+            //Always make some progress, even if the previous tick overran
+            while ((now < deadline || ran == 0) && (job = this.queues[queue].poll()) != null) {
+                if (job.quota != null && job.quota.isSpent(tick)) {
+                    if (waiting == null) {
+                        waiting = new ArrayList<>();
+                    }
+                    waiting.add(job);
+                    continue;
+                }
+                ran++;
+                if (job.step()) {
+                    this.depth[queue].decrementAndGet();
+                } else {
+                    this.queues[queue].add(job);
+                }
+                now = System.nanoTime();
+                if (this.preempted(queue, parked)) {
+                    //Higher priority work arrived while running this step
+                    i = -1;
+                    break;
+                }
+            }
+            if (waiting != null) {
+                this.queues[queue].addAll(waiting);
+                parked[queue] = waiting.size();
+            }
+        }
+        if (ran == 0) {
+            this.lastTick = 0;
+            return;
+        }
+        long time = now - start;
+        this.lastTick = time;
+        this.maxTick = Math.max(this.maxTick, time);
+        this.totalTime += time;
+        this.busyTicks++;
+        this.steps += ran;
+        if (time > this.budget) {
+            this.overruns++;
+        }
+    }
+
+    /**
+     * Checks whether any work of a higher priority than the given queue is
+     * waiting to run and not held back by its {@link Quota}
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param queue The index of the queue currently being run
+     * @param parked The number of jobs per queue waiting on a {@link Quota}
+     * @return {@code true} if a higher priority queue has work to run
+     */
+    private boolean preempted(int queue, int[] parked) {
+        for (int i = 0; i < queue; i++) {
+            if (this.depth[i].get() > parked[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of jobs waiting to run, at every {@link Priority}
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The total queue depth
+     */
+    public int getQueueDepth() {
+        int back = 0;
+        for (AtomicInteger i : this.depth) {
+            back += i.get();
+        }
+        return back;
+    }
+
+    /**
+     * Returns the number of jobs waiting to run at a {@link Priority}
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param priority The {@link Priority} to check
+     * @return The queue depth for the {@link Priority}
+     */
+    public int getQueueDepth(Priority priority) {
+        return this.depth[priority.ordinal()].get();
+    }
+
+    /**
+     * Returns the time available for queued work each tick
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The per-tick budget, in microseconds
+     */
+    public long getBudgetMicros() {
+        return this.budget / 1000L;
+    }
+
+    /**
+     * Returns the time spent on queued work during the most recent tick
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The time used last tick, in microseconds
+     */
+    public long getLastTickMicros() {
+        return this.lastTick / 1000L;
+    }
+
+    /**
+     * Returns the longest time spent on queued work in a single tick
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The longest tick, in microseconds
+     */
+    public long getMaxTickMicros() {
+        return this.maxTick / 1000L;
+    }
+
+    /**
+     * Returns the average time spent on queued work in ticks that had any
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The average busy tick, in microseconds
+     */
+    public long getAverageTickMicros() {
+        long ticks = this.busyTicks;
+        return ticks == 0 ? 0 : this.totalTime / ticks / 1000L;
+    }
+
+    /**
+     * Returns the number of ticks in which queued work went over the budget,
+     * because a single step took longer than the time that was left
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of overrunning ticks
+     */
+    public long getOverruns() {
+        return this.overruns;
+    }
+
+    /**
+     * Returns the number of steps run so far
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of steps run
+     */
+    public long getSteps() {
+        return this.steps;
+    }
+
+    /**
+     * A queued job, the future to complete when it finishes and the
+     * {@link Quota} it counts against
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    private static final class Job {
+
+        private final BooleanSupplier step;
+        private final CompletableFuture<Void> done;
+        private final Quota quota;
+
+        private Job(BooleanSupplier step, CompletableFuture<Void> done, Quota quota) {
+            this.step = step;
+            this.done = done;
+            this.quota = quota;
+        }
+
+        /**
+         * Runs one step of this job
+         *
+         * @since 1.0.0
+         * @version 1.0.0
+         *
+         * @return {@code true} if the job is finished, successfully or not
+         */
+        private boolean step() {
+            try {
+                if (!this.step.getAsBoolean()) {
+                    return false;
+                }
+                if (this.done != null) {
+                    this.done.complete(null);
+                }
+            } catch (Throwable ex) {
+                if (this.done != null) {
+                    this.done.completeExceptionally(ex);
+                } else {
+                    Debugger.error(ex, "Error running queued main thread work");
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Settles this job once the scheduler has stopped. Stepped jobs are
+         * cancelled, and {@link Executor} work is run one last time.
+         *
+         * @since 1.0.0
+         * @version 1.0.0
+         */
+        private void drop() {
+            if (this.done != null) {
+                this.done.completeExceptionally(new CancellationException("Tick scheduler stopped"));
+            } else {
+                this.step();
+            }
+        }
+
+    }
+
+}
@@ -19,12 +19,11 @@
  */
 package com.codelanx.minigamelib.arena;
 
-import static java.lang.System.arraycopy;
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
-import org.bukkit.Chunk;
+import java.util.function.Function;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
@@ -32,6 +31,14 @@ import org.bukkit.generator.BlockPopulator;
 import org.bukkit.generator.ChunkGenerator;
 
 /**
+ * Generates the chunks around arenas: empty void, or optionally a backdrop
+ * of flat layers. A single instance is shared by every world the
+ * {@link ArenaFactory} creates, and may be called for several worlds at
+ * once, so it holds no mutable state.
+ * <br><br>
+ * Layers are given bottom-up as a comma-separated list of
+ * {@code [count*]block[:data]}, where the block is a material name or id,
+ * e.g. {@code "bedrock,3*dirt,grass"} or {@code "7,2*35:14"}.
  *
  * @since 1.0.0
  * @author 1Rogue
@@ -39,90 +46,195 @@ import org.bukkit.generator.ChunkGenerator;
  */
 public class VoidGenerator extends ChunkGenerator {
 
-    private short[] layer;
-    private byte[] layerDataValues;
+    /**
+     * Section arrays with every section left {@code null}, indexed by the
+     * number of sections. The server only reads the returned array, and a
+     * {@code null} section is never created at all, so these are shared by
+     * every chunk.
+     */
+    private static final short[][][] EMPTY = new short[17][][];
+
+    static {
+        for (int i = 0; i < EMPTY.length; i++) {
+            EMPTY[i] = new short[i][];
+        }
+    }
+
+    /** The block of each layer from y = 0 up, as {@code id << 4 | data} */
+    private final char[] layers;
+    /** Whether any layer has a data value, which block sections cannot hold */
+    private final boolean data;
+    /** Shared block sections holding the layers, indexed like {@link #EMPTY} */
+    private final short[][][] sections;
+    /** Looks up the spawn of a world being created, or {@code null} */
+    private final Function<World, Location> spawns;
 
     public VoidGenerator() {
         this(null);
     }
 
     public VoidGenerator(String id) {
-        layerDataValues = null;
-        layer = new short[65];
-        Arrays.fill(layer, 0, 65, (short) Material.AIR.getId());
+        this(id, null);
     }
 
+    /**
+     * {@link VoidGenerator} constructor
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param id The layers to generate, or {@code null} or empty for a void
+     * @param spawns Returns the spawn of a {@link World} being created, or
+     *               {@code null} if it has none. May itself be {@code null}
+     * @throws IllegalArgumentException If the layers cannot be parsed
+     */
+    public VoidGenerator(String id, Function<World, Location> spawns) {
+        this.spawns = spawns;
+        this.layers = VoidGenerator.parseLayers(id);
+        boolean hasData = false;
+        for (char c : this.layers) {
+            hasData |= (c & 15) != 0;
+        }
+        this.data = hasData;
+        if (this.layers.length == 0) {
+            this.sections = EMPTY;
+            return;
+        }
+        short[][] filled = new short[(this.layers.length + 15) >> 4][];
+        for (int s = 0; s < filled.length; s++) {
+            filled[s] = new short[4096];
+            for (int y = 0; y < 16 && (s << 4) + y < this.layers.length; y++) {
+                Arrays.fill(filled[s], y << 8, (y + 1) << 8, (short) (this.layers[(s << 4) + y] >> 4));
+            }
+        }
+        this.sections = new short[EMPTY.length][][];
+        for (int i = 0; i < this.sections.length; i++) {
+            this.sections[i] = Arrays.copyOf(filled, i);
+        }
+    }
+
+    /**
+     * Builds the chunk with {@link ChunkData} when a layer needs a data
+     * value, setting one region per run of identical layers. Otherwise
+     * returns {@code null}, and the server falls back to the shared
+     * sections from
+     * {@link #generateExtBlockSections(World, Random, int, int, BiomeGrid)}.
+     * <br><br>
+     * {@inheritDoc}
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     */
     @Override
-    public short[][] generateExtBlockSections(World world, Random random, int x, int z, BiomeGrid biomes) {
-        int maxHeight = world.getMaxHeight();
-        if (layer.length > maxHeight) {
-            short[] newLayer = new short[maxHeight];
-            arraycopy(layer, 0, newLayer, 0, maxHeight);
-            layer = newLayer;
+    public ChunkData generateChunkData(World world, Random random, int x, int z, BiomeGrid biomes) {
+        if (!this.data) {
+            return null;
         }
-        short[][] result = new short[maxHeight / 16][]; // 16x16x16 chunks
-        for (int i = 0; i < layer.length; i += 16) {
-            result[i >> 4] = new short[4096];
-            for (int y = 0; y < Math.min(16, layer.length - i); y++) {
-                Arrays.fill(result[i >> 4], y * 16 * 16, (y + 1) * 16 * 16, layer[i + y]);
+        ChunkData back = this.createChunkData(world);
+        int top = Math.min(this.layers.length, back.getMaxHeight());
+        for (int y = 0, next; y < top; y = next) {
+            char block = this.layers[y];
+            next = y + 1;
+            while (next < top && this.layers[next] == block) {
+                next++;
+            }
+            if (block != 0) {
+                back.setRegion(0, y, 0, 16, next, 16, block >> 4, block & 15);
             }
         }
+        return back;
+    }
 
-        return result;
+    @Override
+    public short[][] generateExtBlockSections(World world, Random random, int x, int z, BiomeGrid biomes) {
+        int sections = world.getMaxHeight() >> 4;
+        return sections < this.sections.length ? this.sections[sections] : Arrays.copyOf(this.sections[16], sections);
     }
 
     @Override
     public List<BlockPopulator> getDefaultPopulators(World world) {
-        if (layerDataValues != null) {
-            return Arrays.asList((BlockPopulator) new VoidPopulator(layerDataValues));
-        } else {
-            // This is the default, but just in case default populators change to stock minecraft populators by default...
-            return new ArrayList<>();
-        }
+        return Collections.emptyList();
     }
 
+    /**
+     * Returns the spawn given for the world, or otherwise the top of the
+     * layers at 0, 0. Never loads or scans a chunk, so creating a world does
+     * not have to generate its spawn chunk first.
+     * <br><br>
+     * {@inheritDoc}
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     */
     @Override
     public Location getFixedSpawnLocation(World world, Random random) {
-        if (!world.isChunkLoaded(0, 0)) {
-            world.loadChunk(0, 0);
-        }
-
-        if ((world.getHighestBlockYAt(0, 0) <= 0) && (world.getBlockAt(0, 0, 0).getType() == Material.AIR)) // SPACE!
-        {
-            return new Location(world, 0, 64, 0); // Lets allow people to drop a little before hitting the void then shall we?
+        Location back = this.spawns == null ? null : this.spawns.apply(world);
+        if (back != null) {
+            return back;
         }
-
-        return new Location(world, 0, world.getHighestBlockYAt(0, 0), 0);
+        //Without layers, let people drop a little before hitting the void
+        return new Location(world, 0, this.layers.length > 0 ? this.layers.length : 64, 0);
     }
 
-}
-
-class VoidPopulator extends BlockPopulator {
-
-    byte[] layerDataValues;
-
-    protected VoidPopulator(byte[] layerDataValues) {
-        this.layerDataValues = layerDataValues;
+    /**
+     * Returns the number of layers this generator fills each chunk with
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of layers, or 0 for a void
+     */
+    public int getLayerCount() {
+        return this.layers.length;
     }
 
-    @Override
-    public void populate(World world, Random random, Chunk chunk) {
-        if (layerDataValues != null) {
-            int x = chunk.getX() << 4;
-            int z = chunk.getZ() << 4;
-
-            for (int y = 0; y < layerDataValues.length; y++) {
-                byte dataValue = layerDataValues[y];
-                if (dataValue == 0) {
-                    continue;
-                }
-                for (int xx = 0; xx < 16; xx++) {
-                    for (int zz = 0; zz < 16; zz++) {
-                        world.getBlockAt(x + xx, y, z + zz).setData(dataValue);
-                    }
+    /**
+     * Parses a layer specification into one block per layer
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param spec The layers, bottom-up, see {@link VoidGenerator}
+     * @return The block of each layer, as {@code id << 4 | data}
+     * @throws IllegalArgumentException If the layers cannot be parsed
+     */
+    private static char[] parseLayers(String spec) {
+        if (spec == null || spec.trim().isEmpty()) {
+            return new char[0];
+        }
+        char[] back = new char[256];
+        int height = 0;
+        for (String layer : spec.split(",")) {
+            layer = layer.trim();
+            int count = 1;
+            int star = layer.indexOf('*');
+            if (star >= 0) {
+                count = Integer.parseInt(layer.substring(0, star).trim());
+                layer = layer.substring(star + 1).trim();
+            }
+            int data = 0;
+            int colon = layer.indexOf(':');
+            if (colon >= 0) {
+                data = Integer.parseInt(layer.substring(colon + 1).trim());
+                layer = layer.substring(0, colon).trim();
+            }
+            int id;
+            if (!layer.isEmpty() && Character.isDigit(layer.charAt(0))) {
+                id = Integer.parseInt(layer);
+            } else {
+                Material m = Material.matchMaterial(layer);
+                if (m == null) {
+                    throw new IllegalArgumentException("Unknown block '" + layer + "' in layers '" + spec + "'");
                 }
+                id = m.getId();
+            }
+            if (id < 0 || id > 4095 || data < 0 || data > 15 || count < 1 || height + count > back.length) {
+                throw new IllegalArgumentException("Invalid layers '" + spec + "'");
             }
+            Arrays.fill(back, height, height + count, (char) (id << 4 | data));
+            height += count;
         }
+        return Arrays.copyOf(back, height);
     }
 
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.arena;
+
+import com.codelanx.minigamelib.arena.TickScheduler.Priority;
+import com.codelanx.minigamelib.arena.TickScheduler.Quota;
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+
+/**
+ * A {@link SlotFiller} that copies blocks out of a loaded copy of the
+ * template world. Blocks are read from {@link ChunkSnapshot} objects and
+ * written without physics, as steps on a {@link TickScheduler}. Air is
+ * skipped, since the shared worlds are empty to begin with.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class WorldCopySlotFiller implements SlotFiller {
+
+    /** Runs copies in time slices on the main thread */
+    private final TickScheduler scheduler;
+    /** Provides the loaded source {@link World} of a template */
+    private final Function<File, CompletableFuture<World>> sources;
+    /** Caps the blocks copied or cleared per tick */
+    private final Quota blocks;
+
+    /**
+     * {@link WorldCopySlotFiller} constructor
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param scheduler The {@link TickScheduler} to run copies on
+     * @param sources Provides the loaded source {@link World} of a template
+     * @param blocks The {@link Quota} of blocks visited per tick
+     */
+    public WorldCopySlotFiller(TickScheduler scheduler, Function<File, CompletableFuture<World>> sources, Quota blocks) {
+        this.scheduler = scheduler;
+        this.sources = sources;
+        this.blocks = blocks;
+    }
+
+    @Override
+    public CompletableFuture<Void> fill(ArenaSlot slot, File template, ArenaTemplate meta) {
+        World target = slot.getWorld();
+        int dx = slot.getOffsetX();
+        int dz = slot.getOffsetZ();
+        return this.sources.apply(template).thenCompose(source -> new BlockWalker(source, meta.getBounds()) {
+
+            @Override
+            void visit(int x, int y, int z, ChunkSnapshot snapshot) {
+                int type = snapshot.getBlockTypeId(x & 15, y, z & 15);
+                if (type != 0) {
+                    byte data = (byte) snapshot.getBlockData(x & 15, y, z & 15);
+                    target.getBlockAt(x + dx, y, z + dz).setTypeIdAndData(type, data, false);
+                }
+            }
+
+        }.start(this.scheduler, Priority.PROVISION, this.blocks));
+    }
+
+    @Override
+    public CompletableFuture<Void> clear(ArenaSlot slot, ArenaTemplate meta) {
+        slot.removeEntities();
+        return BlockWalker.clearing(slot.getWorld(), slot.translate(meta.getBounds())).start(this.scheduler, Priority.CLEANUP, this.blocks);
+    }
+
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.arena;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compares a world folder against the template it was cloned from, by size,
+ * modification time and finally content hash. Template hashes are cached
+ * until the template file changes.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class WorldDiff {
+
+    /** Cached content hashes of template files, keyed by absolute path */
+    private final Map<String, Fingerprint> hashes = new ConcurrentHashMap<>();
+
+    /**
+     * Compares a world folder against its template
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The template folder
+     * @param instance The world folder cloned from the template
+     * @return The {@link Result} of the comparison
+     * @throws IOException If either folder could not be read
+     */
+    public Result compare(File template, File instance) throws IOException {
+        Set<String> base = WorldDiff.listFiles(template.toPath());
+        Set<String> current = WorldDiff.listFiles(instance.toPath());
+        List<String> changed = new ArrayList<>();
+        long bytes = 0;
+        for (String path : base) {
+            File from = new File(template, path);
+            File to = new File(instance, path);
+            if (!current.contains(path) || this.differs(from, to)) {
+                changed.add(path);
+                bytes += from.length();
+            }
+        }
+        List<String> extra = current.stream().filter(p -> !base.contains(p)).collect(Collectors.toList());
+        return new Result(changed, extra, bytes);
+    }
+
+    /**
+     * Forgets the cached hashes of every file under a template folder
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param template The template folder that changed
+     */
+    public void invalidate(File template) {
+        String prefix = template.getAbsolutePath() + File.separatorChar;
+        this.hashes.keySet().removeIf(k -> k.startsWith(prefix));
+    }
+
+    private boolean differs(File template, File instance) throws IOException {
+        if (template.length() != instance.length()) {
+            return true;
+        }
+        if (template.lastModified() == instance.lastModified()) {
+            return false;
+        }
+        return !Arrays.equals(this.templateHash(template), WorldDiff.hash(instance));
+    }
+
+    private byte[] templateHash(File file) throws IOException {
+        String key = file.getAbsolutePath();
+        Fingerprint print = this.hashes.get(key);
+        if (print == null || print.size != file.length() || print.modified != file.lastModified()) {
+            print = new Fingerprint(file.length(), file.lastModified(), WorldDiff.hash(file));
+            this.hashes.put(key, print);
+        }
+        return print.hash;
+    }
+
+    /**
+     * Returns the relative paths of every plain file below a folder
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param root The folder to list
+     * @return A {@link Set} of paths relative to {@code root}
+     * @throws IOException If the folder could not be walked
+     */
+    static Set<String> listFiles(Path root) throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            return walk.filter(Files::isRegularFile)
+                    .map(p -> root.relativize(p).toString())
+                    .collect(Collectors.toSet());
+        }
+    }
+
+    /**
+     * Hashes the contents of a {@link File}
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param file The {@link File} to hash
+     * @return The SHA-1 digest of the file
+     * @throws IOException If the file could not be read
+     */
+    static byte[] hash(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-1 is required by the JVM specification", ex);
+        }
+        ByteBuffer buf = ByteBuffer.allocate(64 * 1024);
+        try (FileChannel chan = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (chan.read(buf) >= 0) {
+                buf.flip();
+                digest.update(buf);
+                buf.clear();
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * The files that differ between a world folder and its template
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    public static class Result {
+
+        private final List<String> changed;
+        private final List<String> extra;
+        private final long bytes;
+
+        private Result(List<String> changed, List<String> extra, long bytes) {
+            this.changed = Collections.unmodifiableList(changed);
+            this.extra = Collections.unmodifiableList(extra);
+            this.bytes = bytes;
+        }
+
+        /**
+         * Returns the template files that are missing or modified in the
+         * world folder
+         *
+         * @since 1.0.0
+         * @version 1.0.0
+         *
+         * @return Relative paths of the changed files
+         */
+        public List<String> getChanged() {
+            return this.changed;
+        }
+
+        /**
+         * Returns the files in the world folder that the template lacks
+         *
+         * @since 1.0.0
+         * @version 1.0.0
+         *
+         * @return Relative paths of the extra files
+         */
+        public List<String> getExtra() {
+            return this.extra;
+        }
+
+        /**
+         * Returns the template size of every changed file
+         *
+         * @since 1.0.0
+         * @version 1.0.0
+         *
+         * @return The number of bytes needed to restore the changed files
+         */
+        public long getBytes() {
+            return this.bytes;
+        }
+
+    }
+
+    private static class Fingerprint {
+
+        private final long size;
+        private final long modified;
+        private final byte[] hash;
+
+        private Fingerprint(long size, long modified, byte[] hash) {
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+        }
+
+    }
+
+}
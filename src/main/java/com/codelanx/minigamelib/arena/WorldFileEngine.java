@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.arena;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Copies and deletes world folders using a {@link ForkJoinPool}, so that the
+ * files of a large world are processed concurrently instead of one at a time
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class WorldFileEngine {
+
+    /** The pool running file operations */
+    private final ForkJoinPool pool;
+
+    /**
+     * {@link WorldFileEngine} constructor
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param parallelism The number of files to process at once, or a value
+     *                    less than 1 to use one per available processor
+     */
+    public WorldFileEngine(int parallelism) {
+        if (parallelism < 1) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        this.pool = new ForkJoinPool(parallelism, p -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            t.setName("MinigameLib-WorldFiles-" + t.getPoolIndex());
+            t.setDaemon(true);
+            return t;
+        }, null, false);
+    }
+
+    /**
+     * Returns the number of files this engine processes at once
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The parallelism level
+     */
+    public int getParallelism() {
+        return this.pool.getParallelism();
+    }
+
+    /**
+     * Clones a directory from one file location to another
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param source The source directory to copy
+     * @param destination The destination of the directory copy
+     * @param strategy The {@link CloneStrategy} used for each file
+     * @throws IOException Failure to copy the entire directory
+     */
+    public void copy(File source, File destination, CloneStrategy strategy) throws IOException {
+        if (!strategy.isPerFile()) {
+            strategy.cloneDirectory(source, destination);
+            return;
+        }
+        strategy.checkDirectories(source, destination);
+        this.invoke(new CopyTask(source, destination, strategy));
+    }
+
+    /**
+     * Deletes an entire directory recursively
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param folder The source {@link File} directory to delete
+     */
+    public void delete(File folder) {
+        if (!folder.isDirectory()) {
+            throw new IllegalArgumentException("Source (" + folder.getPath() + ") must be a directory");
+        }
+        try {
+            this.invoke(new DeleteTask(folder));
+        } catch (IOException ex) {
+            //DeleteTask never throws checked exceptions
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Stops the worker threads of this engine
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void shutdown() {
+        this.pool.shutdown();
+    }
+
+    private void invoke(ForkJoinTask<?> task) throws IOException {
+        try {
+            this.pool.invoke(task);
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Copies one directory, forking a task per child file and directory
+     */
+    private static class CopyTask extends RecursiveAction {
+
+        private final File source;
+        private final File destination;
+        private final CloneStrategy strategy;
+
+        private CopyTask(File source, File destination, CloneStrategy strategy) {
+            this.source = source;
+            this.destination = destination;
+            this.strategy = strategy;
+        }
+
+        @Override
+        protected void compute() {
+            this.destination.mkdirs();
+            File[] files = this.source.listFiles();
+            if (files == null) {
+                throw new UncheckedIOException(new IOException("Unable to list " + this.source.getPath()));
+            }
+            List<RecursiveAction> tasks = new ArrayList<>(files.length);
+            for (File file : files) {
+                File target = new File(this.destination, file.getName());
+                if (file.isDirectory()) {
+                    tasks.add(new CopyTask(file, target, this.strategy));
+                } else {
+                    tasks.add(new FileTask(file, target, this.strategy));
+                }
+            }
+            ForkJoinTask.invokeAll(tasks);
+        }
+
+    }
+
+    /**
+     * Clones a single file
+     */
+    private static class FileTask extends RecursiveAction {
+
+        private final File source;
+        private final File destination;
+        private final CloneStrategy strategy;
+
+        private FileTask(File source, File destination, CloneStrategy strategy) {
+            this.source = source;
+            this.destination = destination;
+            this.strategy = strategy;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                this.strategy.cloneFile(this.source, this.destination);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+    }
+
+    /**
+     * Deletes a directory once all of its children have been deleted
+     */
+    private static class DeleteTask extends RecursiveAction {
+
+        private final File folder;
+
+        private DeleteTask(File folder) {
+            this.folder = folder;
+        }
+
+        @Override
+        protected void compute() {
+            File[] files = this.folder.listFiles();
+            if (files != null) {
+                List<RecursiveAction> dirs = new ArrayList<>();
+                List<File> plain = new ArrayList<>();
+                for (File f : files) {
+                    if (f.isDirectory()) {
+                        dirs.add(new DeleteTask(f));
+                    } else {
+                        plain.add(f);
+                    }
+                }
+                if (!plain.isEmpty()) {
+                    dirs.add(new FileDeleteTask(plain));
+                }
+                ForkJoinTask.invokeAll(dirs);
+            }
+            this.folder.delete();
+        }
+
+    }
+
+    /**
+     * Deletes a batch of plain files, splitting the batch in half while it is
+     * large enough to be worth sharing between workers
+     */
+    private static class FileDeleteTask extends RecursiveAction {
+
+        /** Below this many files, deleting inline beats forking */
+        private static final int THRESHOLD = 16;
+        private final List<File> files;
+
+        private FileDeleteTask(List<File> files) {
+            this.files = files;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.files.size() <= THRESHOLD) {
+                this.files.forEach(File::delete);
+                return;
+            }
+            int half = this.files.size() / 2;
+            ForkJoinTask.invokeAll(new FileDeleteTask(this.files.subList(0, half)),
+                    new FileDeleteTask(this.files.subList(half, this.files.size())));
+        }
+
+    }
+
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.arena;
+
+import com.codelanx.codelanxlib.util.Debugger;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Deletes arena instance folders in the background. A folder is moved into
+ * a trash directory at once, so its name is free again immediately, and is
+ * then deleted on a background thread. Instance folders are tagged with a
+ * marker file so that ones left behind by a crash can be found and reclaimed
+ * on the next startup. Folder names are reserved before anything is copied
+ * into them, so a copy cut short by a crash is reclaimed as well.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class WorldReaper {
+
+    /** Name of the marker file placed in every instance folder */
+    public static final String MARKER = ".minigame-instance";
+    /** The directory folders are moved into before deletion */
+    private final File trash;
+    /** The directory holding a file for each instance folder still being copied */
+    private final File reservations;
+    /** Deletes folder contents */
+    private final WorldFileEngine files;
+    /** Runs deletions off the main thread */
+    private final Executor executor;
+    /** Number of folders waiting to be deleted */
+    private final AtomicInteger pending = new AtomicInteger();
+    /** Number of folders deleted */
+    private final AtomicLong reclaimedFolders = new AtomicLong();
+    /** Number of bytes deleted */
+    private final AtomicLong reclaimedBytes = new AtomicLong();
+    /** Records how long deletions take */
+    private final ArenaMetrics metrics;
+
+    /**
+     * {@link WorldReaper} constructor
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param container The server's world container
+     * @param files The {@link WorldFileEngine} used to delete folders
+     * @param executor The {@link Executor} to delete folders on
+     * @param metrics The {@link ArenaMetrics} to record deletions in
+     */
+    WorldReaper(File container, WorldFileEngine files, Executor executor, ArenaMetrics metrics) {
+        this.trash = new File(container, ".minigame-trash");
+        this.reservations = new File(container, ".minigame-pending");
+        this.files = files;
+        this.executor = executor;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Reserves the name of an instance folder before it is copied, so a
+     * partial copy left by a crash can still be reclaimed
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param folder The instance folder about to be created
+     * @throws IOException Failure to create the reservation
+     */
+    void reserve(File folder) throws IOException {
+        this.reservations.mkdirs();
+        new File(this.reservations, folder.getName()).createNewFile();
+    }
+
+    /**
+     * Drops the reservation of an instance folder whose copy failed and was
+     * cleaned up
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param folder The instance folder
+     */
+    void release(File folder) {
+        new File(this.reservations, folder.getName()).delete();
+    }
+
+    /**
+     * Tags a freshly created instance folder so it can be reclaimed if the
+     * server stops before the folder is deleted, and drops its reservation
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param folder The instance folder
+     * @throws IOException Failure to create the marker file
+     */
+    void mark(File folder) throws IOException {
+        new File(folder, MARKER).createNewFile();
+        this.release(folder);
+    }
+
+    /**
+     * Moves a folder into the trash and queues it for deletion. If it cannot
+     * be moved, it is deleted in place in the background.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param folder The folder to delete
+     * @param template The name of the template the folder belonged to, used
+     *                 to label the deletion in {@link ArenaMetrics}
+     */
+    public void reap(File folder, String template) {
+        if (!folder.isDirectory()) {
+            return;
+        }
+        this.trash.mkdirs();
+        File target = new File(this.trash, folder.getName() + "_" + System.nanoTime());
+        this.queue(folder.renameTo(target) ? target : folder, template);
+    }
+
+    /**
+     * Queues every orphaned instance folder in a world container, including
+     * partial copies, and anything left in the trash, for deletion
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param container The server's world container
+     * @param loaded Tests whether a folder name belongs to a loaded world
+     * @return The number of folders queued
+     */
+    public int reclaimOrphans(File container, Predicate<String> loaded) {
+        int back = 0;
+        File[] partial = this.reservations.listFiles(File::isFile);
+        if (partial != null) {
+            for (File r : partial) {
+                File f = new File(container, r.getName());
+                if (f.isDirectory() && !loaded.test(f.getName())) {
+                    this.reap(f, "orphan");
+                    back++;
+                }
+                r.delete();
+            }
+        }
+        File[] orphans = container.listFiles(f -> f.isDirectory()
+                && new File(f, MARKER).isFile()
+                && !loaded.test(f.getName()));
+        if (orphans != null) {
+            for (File f : orphans) {
+                this.reap(f, "orphan");
+                back++;
+            }
+        }
+        File[] trashed = this.trash.listFiles(File::isDirectory);
+        if (trashed != null) {
+            for (File f : trashed) {
+                this.queue(f, "orphan");
+                back++;
+            }
+        }
+        return back;
+    }
+
+    private void queue(File doomed, String template) {
+        this.pending.incrementAndGet();
+        this.executor.execute(() -> {
+            try {
+                long size = WorldReaper.sizeOf(doomed);
+                long start = System.nanoTime();
+                this.files.delete(doomed);
+                this.metrics.record(ArenaMetrics.Phase.DELETE, template, start);
+                this.reclaimedBytes.addAndGet(size);
+                this.reclaimedFolders.incrementAndGet();
+            } catch (IOException | RuntimeException ex) {
+                this.metrics.fail(ArenaMetrics.Phase.DELETE, template);
+                Debugger.error(ex, "Error deleting world folder '%s'!", doomed.getPath());
+            } finally {
+                this.pending.decrementAndGet();
+            }
+        });
+    }
+
+    private static long sizeOf(File folder) throws IOException {
+        try (Stream<Path> walk = Files.walk(folder.toPath())) {
+            return walk.filter(Files::isRegularFile).mapToLong(p -> p.toFile().length()).sum();
+        }
+    }
+
+    /**
+     * Returns the number of folders waiting to be deleted
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The length of the deletion queue
+     */
+    public int getPending() {
+        return this.pending.get();
+    }
+
+    /**
+     * Returns the number of folders deleted so far
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of reclaimed folders
+     */
+    public long getReclaimedFolders() {
+        return this.reclaimedFolders.get();
+    }
+
+    /**
+     * Returns the number of bytes deleted so far
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of reclaimed bytes
+     */
+    public long getReclaimedBytes() {
+        return this.reclaimedBytes.get();
+    }
+
+}
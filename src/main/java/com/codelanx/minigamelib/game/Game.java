@@ -47,6 +47,10 @@ public abstract class Game<E extends Plugin & Minigame> extends Observable imple
     protected abstract void handleJoin(Player p);
 
     public void join(Player p) {
+        ProfileCache cache = this.plugin.getProfileCache();
+        if (cache != null) {
+            cache.prefetch(p);
+        }
         this.notifyObservers();
     }
 
@@ -0,0 +1,465 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.game;
+
+import com.codelanx.codelanxlib.util.Debugger;
+import com.codelanx.codelanxlib.util.Scheduler;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bukkit.Server;
+import org.bukkit.SkullType;
+import org.bukkit.block.Skull;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * A bounded cache of textured player profiles, for skulls that must show a
+ * player's skin without ever waiting on a lookup. Profiles are filled when
+ * players join a {@link Game}: the server's own profile of the player is
+ * used if it already carries textures, otherwise they are fetched from the
+ * session server on a background thread. Skulls are then given a cached
+ * profile on the main thread, and a miss leaves the default head.
+ * <br><br>
+ * Bukkit has no API for game profiles, so they are read and applied through
+ * the server implementation by reflection. If that is not possible, the
+ * cache stays empty and every read is a miss.
+ * <br><br>
+ * The least recently used profile is evicted once the cache is full, and
+ * profiles older than the time to live count as missing. All methods are
+ * thread-safe.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class ProfileCache {
+
+    /** The most profiles held at once */
+    private final int capacity;
+    /** How long a profile stays valid, in milliseconds */
+    private final long ttl;
+    /** Access to the server's game profiles, or {@code null} if unavailable */
+    private final Profiles access;
+    /** Profiles by player id, in access order */
+    private final LinkedHashMap<UUID, Profile> profiles = new LinkedHashMap<>(16, 0.75f, true);
+    /** Ids of players with a fill running */
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    /**
+     * {@link ProfileCache} constructor
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param plugin The main {@link Plugin} instance
+     * @param capacity The most profiles to hold at once
+     * @param ttl How long a profile stays valid, in seconds
+     */
+    public ProfileCache(Plugin plugin, int capacity, long ttl) {
+        this.capacity = Math.max(1, capacity);
+        this.ttl = TimeUnit.SECONDS.toMillis(ttl);
+        Profiles found;
+        try {
+            found = new Profiles(plugin.getServer());
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            Debugger.error(ex, "Unable to access player profiles, skulls will show the default head");
+            found = null;
+        }
+        this.access = found;
+    }
+
+    /**
+     * Caches the textured profile of a {@link Player}, unless a valid one is
+     * already cached or being filled. Must be called on the main thread; the
+     * session server is only ever contacted in the background.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param player The {@link Player} to cache
+     */
+    public void prefetch(Player player) {
+        if (this.access == null) {
+            return;
+        }
+        UUID id = player.getUniqueId();
+        synchronized (this) {
+            Profile p = this.profiles.get(id);
+            if (p != null && !this.isExpired(p)) {
+                return;
+            }
+        }
+        if (!this.pending.add(id)) {
+            return;
+        }
+        Object profile;
+        try {
+            profile = this.access.profileOf(player);
+            if (this.access.isTextured(profile)) {
+                //Online mode servers receive the textures at login
+                this.put(id, profile);
+                this.pending.remove(id);
+                return;
+            }
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            this.pending.remove(id);
+            this.failures.incrementAndGet();
+            Debugger.error(ex, "Error reading the profile of %s", player.getName());
+            return;
+        }
+        Scheduler.runAsyncTask(() -> {
+            try {
+                //Blocks on the session server, which is why this is off the main thread
+                Object filled = this.access.fill(profile);
+                if (this.access.isTextured(filled)) {
+                    this.put(id, filled);
+                } else {
+                    //Offline mode ids have no skin to fetch
+                    this.failures.incrementAndGet();
+                }
+            } catch (ReflectiveOperationException | RuntimeException ex) {
+                this.failures.incrementAndGet();
+                Debugger.error(ex, "Error fetching the profile of %s", id);
+            } finally {
+                this.pending.remove(id);
+            }
+        }, 0);
+    }
+
+    /**
+     * Makes a {@link Skull} a player head showing a cached profile, without
+     * ever looking one up. On a miss the skull is left as the default player
+     * head. Must be called on the main thread, before the skull is updated.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param skull The {@link Skull} state to change
+     * @param player The id of the player whose head to show
+     * @return {@code true} if a cached profile was applied
+     */
+    public boolean apply(Skull skull, UUID player) {
+        skull.setSkullType(SkullType.PLAYER);
+        Profile cached = this.getIfPresent(player);
+        if (cached == null) {
+            return false;
+        }
+        try {
+            this.access.apply(skull, cached.profile);
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            Debugger.error(ex, "Error applying a cached profile to a skull");
+            return false;
+        }
+    }
+
+    /**
+     * Returns a cached profile, recording a hit or a miss
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param player The id of the player
+     * @return The cached {@link Profile}, or {@code null} if it is not
+     *         cached or has expired
+     */
+    private synchronized Profile getIfPresent(UUID player) {
+        Profile back = this.profiles.get(player);
+        if (back != null && this.isExpired(back)) {
+            this.profiles.remove(player);
+            this.expirations.incrementAndGet();
+            back = null;
+        }
+        (back == null ? this.misses : this.hits).incrementAndGet();
+        return back;
+    }
+
+    /**
+     * Returns whether profiles can be cached on this server
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return {@code false} if game profiles could not be accessed
+     */
+    public boolean isAvailable() {
+        return this.access != null;
+    }
+
+    /**
+     * Removes every cached profile. Statistics are kept.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public synchronized void clear() {
+        this.profiles.clear();
+    }
+
+    /**
+     * Returns the number of cached profiles, including expired ones not yet
+     * removed
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of cached profiles
+     */
+    public synchronized int size() {
+        return this.profiles.size();
+    }
+
+    /**
+     * Returns the most profiles held at once
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The capacity of this cache
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the number of reads answered from the cache
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of cache hits
+     */
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * Returns the number of reads that found no valid profile
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of cache misses
+     */
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    /**
+     * Returns the share of reads answered from the cache
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The hit rate from 0 to 1, or 0 before any reads
+     */
+    public double getHitRate() {
+        long h = this.hits.get();
+        long total = h + this.misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * Returns the number of textured profiles cached
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of profiles loaded into the cache
+     */
+    public long getLoads() {
+        return this.loads.get();
+    }
+
+    /**
+     * Returns the number of profiles that could not be read or had no
+     * textures
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of failed fills
+     */
+    public long getLoadFailures() {
+        return this.failures.get();
+    }
+
+    /**
+     * Returns the number of profiles evicted to stay within capacity
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of evictions
+     */
+    public long getEvictions() {
+        return this.evictions.get();
+    }
+
+    /**
+     * Returns the number of profiles dropped for being older than the time
+     * to live
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of expirations
+     */
+    public long getExpirations() {
+        return this.expirations.get();
+    }
+
+    private synchronized void put(UUID id, Object profile) {
+        this.profiles.put(id, new Profile(profile, System.currentTimeMillis()));
+        this.loads.incrementAndGet();
+        Iterator<Map.Entry<UUID, Profile>> itr = this.profiles.entrySet().iterator();
+        while (this.profiles.size() > this.capacity && itr.hasNext()) {
+            itr.next();
+            itr.remove();
+            this.evictions.incrementAndGet();
+        }
+    }
+
+    private boolean isExpired(Profile profile) {
+        return System.currentTimeMillis() - profile.resolved > this.ttl;
+    }
+
+    /**
+     * A cached, textured game profile
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    private static final class Profile {
+
+        /** The server's {@code GameProfile}, with its textures property */
+        private final Object profile;
+        private final long resolved;
+
+        private Profile(Object profile, long resolved) {
+            this.profile = profile;
+            this.resolved = resolved;
+        }
+
+    }
+
+    /**
+     * Reflective access to the game profiles of a CraftBukkit server: reading
+     * a player's profile, filling in its textures from the session server,
+     * and setting the profile of a skull
+     *
+     * @since 1.0.0
+     * @author 1Rogue
+     * @version 1.0.0
+     */
+    private static final class Profiles {
+
+        /** Name of the profile property holding skin textures */
+        private static final String TEXTURES = "textures";
+        /** {@code com.mojang.authlib.GameProfile} */
+        private final Class<?> type;
+        /** {@code GameProfile#getProperties()} */
+        private final Method properties;
+        /** {@code PropertyMap#containsKey(Object)} */
+        private final Method contains;
+        /** The server's {@code MinecraftSessionService} */
+        private final Object sessions;
+        /** {@code MinecraftSessionService#fillProfileProperties(GameProfile, boolean)} */
+        private final Method fill;
+        /** The profile field of the server's skull state, found on first use */
+        private volatile Field skullProfile;
+
+        private Profiles(Server server) throws ReflectiveOperationException {
+            ClassLoader loader = server.getClass().getClassLoader();
+            this.type = Class.forName("com.mojang.authlib.GameProfile", true, loader);
+            this.properties = this.type.getMethod("getProperties");
+            this.contains = this.properties.getReturnType().getMethod("containsKey", Object.class);
+            Class<?> service = Class.forName("com.mojang.authlib.minecraft.MinecraftSessionService", true, loader);
+            this.fill = service.getMethod("fillProfileProperties", this.type, boolean.class);
+            Object nms = server.getClass().getMethod("getServer").invoke(server);
+            //The getter's name is obfuscated and changes between versions, so find it by type
+            Object found = null;
+            for (Method m : nms.getClass().getMethods()) {
+                if (m.getParameterCount() == 0 && m.getReturnType() == service) {
+                    found = m.invoke(nms);
+                    break;
+                }
+            }
+            if (found == null) {
+                throw new NoSuchMethodException("No session service on " + nms.getClass().getName());
+            }
+            this.sessions = found;
+        }
+
+        private Object profileOf(Player player) throws ReflectiveOperationException {
+            Object back = player.getClass().getMethod("getProfile").invoke(player);
+            if (!this.type.isInstance(back)) {
+                throw new NoSuchMethodException("No game profile on " + player.getClass().getName());
+            }
+            return back;
+        }
+
+        private boolean isTextured(Object profile) throws ReflectiveOperationException {
+            return (Boolean) this.contains.invoke(this.properties.invoke(profile), TEXTURES);
+        }
+
+        private Object fill(Object profile) throws ReflectiveOperationException {
+            return this.fill.invoke(this.sessions, profile, true);
+        }
+
+        private void apply(Skull skull, Object profile) throws ReflectiveOperationException {
+            Field f = this.skullProfile;
+            if (f == null || !f.getDeclaringClass().isInstance(skull)) {
+                f = null;
+                for (Class<?> c = skull.getClass(); c != null && f == null; c = c.getSuperclass()) {
+                    for (Field d : c.getDeclaredFields()) {
+                        if (d.getType() == this.type) {
+                            f = d;
+                            break;
+                        }
+                    }
+                }
+                if (f == null) {
+                    throw new NoSuchFieldException("No game profile on " + skull.getClass().getName());
+                }
+                f.setAccessible(true);
+                this.skullProfile = f;
+            }
+            f.set(skull, profile);
+        }
+
+    }
+
+}
@@ -20,6 +20,7 @@
 package com.codelanx.minigamelib.implementors;
 
 import com.codelanx.minigamelib.game.GameManager;
+import com.codelanx.minigamelib.game.ProfileCache;
 
 /**
  * Class description for {@link Minigame}
@@ -33,4 +34,18 @@ public interface Minigame {
 
     public GameManager getGameManager();
 
+    /**
+     * Returns the {@link ProfileCache} used to show players' skins on skulls
+     * without looking them up, if any
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The {@link ProfileCache}, or {@code null} if profiles are not
+     *         cached
+     */
+    default public ProfileCache getProfileCache() {
+        return null;
+    }
+
 }
@@ -39,7 +39,26 @@ import org.bukkit.Material;
 public enum ConfigValue implements Config {
 
     GRAVESTONES_ENABLED("gravestone.enabled", false),
-    GRAVESTONE_MATERIAL("gravestone.type", Material.NETHER_FENCE);
+    GRAVESTONE_MATERIAL("gravestone.type", Material.NETHER_FENCE),
+    GRAVESTONE_PROTECT_SECONDS("gravestone.protect-seconds", 300),
+    PROFILE_CACHE_SIZE("profiles.cache-size", 1000),
+    PROFILE_CACHE_TTL("profiles.cache-ttl", 3600),
+    ARENA_IO_THREADS("arena.io-threads", 2),
+    ARENA_CLONE_STRATEGY("arena.clone-strategy", "AUTO"),
+    ARENA_IO_PARALLELISM("arena.io-parallelism", 0),
+    ARENA_TEMPLATE_CACHE_MB("arena.template-cache-mb", 0),
+    ARENA_WARMUP_RADIUS("arena.warmup.radius", 2),
+    ARENA_WARMUP_CHUNKS_PER_TICK("arena.warmup.chunks-per-tick", 8),
+    ARENA_GENERATOR_LAYERS("arena.generator.layers", ""),
+    ARENA_SLOTS_ENABLED("arena.slots.enabled", false),
+    ARENA_SLOTS_SIZE("arena.slots.size", 512),
+    ARENA_SLOTS_PER_WORLD("arena.slots.per-world", 64),
+    ARENA_SLOTS_BLOCKS_PER_TICK("arena.slots.blocks-per-tick", 32768),
+    ARENA_SLOTS_FILLER("arena.slots.filler", "COPY"),
+    ARENA_SLOTS_CLIPBOARD_CACHE_MB("arena.slots.clipboard-cache-mb", 256),
+    ARENA_TICK_BUDGET_MS("arena.tick-budget-ms", 10.0),
+    ARENA_METRICS_JMX("arena.metrics.jmx", true),
+    ARENA_METRICS_DUMP_INTERVAL("arena.metrics.dump-interval", 300);
 
     private static Yaml yaml;
     private final String path;
@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.internal;
+
+/**
+ * An open-addressed hash map from primitive {@code long} keys to primitive
+ * {@code long} values, laid out like {@link LongMap}. Neither keys nor
+ * values are ever boxed, so a map of many small entries, such as deadlines
+ * of packed block positions, holds no object per entry.
+ * <br><br>
+ * Not thread-safe. This is a support class for the library and not part of
+ * its API.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public final class LongLongMap {
+
+    /** The key of each slot */
+    private long[] keys;
+    /** The value of each slot */
+    private long[] values;
+    /** Whether each slot holds an entry */
+    private boolean[] used;
+    /** Number of entries in the map */
+    private int size;
+
+    /**
+     * {@link LongLongMap} constructor
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public LongLongMap() {
+        this(16);
+    }
+
+    /**
+     * {@link LongLongMap} constructor
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param expected The number of entries to size the table for
+     */
+    public LongLongMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 4 / 3 + 1) - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+        this.used = new boolean[capacity];
+    }
+
+    /**
+     * Returns the value mapped to a key
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param key The key to look up
+     * @param absent The value to return if the key is not mapped
+     * @return The value, or {@code absent} if the key is not mapped
+     */
+    public long get(long key, long absent) {
+        int i = this.indexOf(key);
+        return i < 0 ? absent : this.values[i];
+    }
+
+    /**
+     * Returns whether a key is mapped
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param key The key to look up
+     * @return {@code true} if the key has a value
+     */
+    public boolean containsKey(long key) {
+        return this.indexOf(key) >= 0;
+    }
+
+    /**
+     * Maps a key to a value, replacing any previous value
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param key The key to map
+     * @param value The value
+     */
+    public void put(long key, long value) {
+        int mask = this.keys.length - 1;
+        int i = LongMap.hash(key) & mask;
+        for (; this.used[i]; i = (i + 1) & mask) {
+            if (this.keys[i] == key) {
+                this.values[i] = value;
+                return;
+            }
+        }
+        if ((this.size + 1) * 4 > this.keys.length * 3) {
+            this.resize(this.keys.length * 2);
+            this.put(key, value);
+            return;
+        }
+        this.keys[i] = key;
+        this.values[i] = value;
+        this.used[i] = true;
+        this.size++;
+    }
+
+    /**
+     * Removes the mapping of a key
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param key The key to remove
+     * @return {@code true} if the key was mapped
+     */
+    public boolean remove(long key) {
+        int i = this.indexOf(key);
+        if (i < 0) {
+            return false;
+        }
+        int mask = this.keys.length - 1;
+        //Shift later entries of the probe run back into the gap
+        for (int j = (i + 1) & mask; this.used[j]; j = (j + 1) & mask) {
+            int home = LongMap.hash(this.keys[j]) & mask;
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                this.keys[i] = this.keys[j];
+                this.values[i] = this.values[j];
+                i = j;
+            }
+        }
+        this.used[i] = false;
+        this.size--;
+        return true;
+    }
+
+    /**
+     * Returns the number of mapped keys
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The size of this map
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns whether no keys are mapped
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return {@code true} if this map is empty
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    private int indexOf(long key) {
+        int mask = this.keys.length - 1;
+        for (int i = LongMap.hash(key) & mask; this.used[i]; i = (i + 1) & mask) {
+            if (this.keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = this.keys;
+        long[] oldValues = this.values;
+        boolean[] oldUsed = this.used;
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+        this.used = new boolean[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (!oldUsed[j]) {
+                continue;
+            }
+            int i = LongMap.hash(oldKeys[j]) & mask;
+            while (this.used[i]) {
+                i = (i + 1) & mask;
+            }
+            this.keys[i] = oldKeys[j];
+            this.values[i] = oldValues[j];
+            this.used[i] = true;
+        }
+    }
+
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.internal;
+
+import java.util.Arrays;
+import java.util.function.LongFunction;
+
+/**
+ * An open-addressed hash map from primitive {@code long} keys, such as
+ * packed chunk, section or block coordinates, to objects. Lookups never box
+ * the key, and removals shift later entries back instead of leaving
+ * tombstones, so long-lived maps with heavy churn stay fast.
+ * <br><br>
+ * {@code null} values are not allowed. Not thread-safe. This is a support
+ * class for the library and not part of its API.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ *
+ * @param <V> The type of the values
+ */
+public final class LongMap<V> {
+
+    /** The key of each slot */
+    private long[] keys;
+    /** The value of each slot, {@code null} for an empty slot */
+    private Object[] values;
+    /** Number of entries in the map */
+    private int size;
+
+    /**
+     * {@link LongMap} constructor
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public LongMap() {
+        this(16);
+    }
+
+    /**
+     * {@link LongMap} constructor
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param expected The number of entries to size the table for
+     */
+    public LongMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 4 / 3 + 1) - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+    }
+
+    /**
+     * Returns the value mapped to a key
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param key The key to look up
+     * @return The value, or {@code null} if the key is not mapped
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int mask = this.keys.length - 1;
+        for (int i = LongMap.hash(key) & mask; this.values[i] != null; i = (i + 1) & mask) {
+            if (this.keys[i] == key) {
+                return (V) this.values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether a key is mapped
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param key The key to look up
+     * @return {@code true} if the key has a value
+     */
+    public boolean containsKey(long key) {
+        return this.get(key) != null;
+    }
+
+    /**
+     * Maps a key to a value, replacing any previous value
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param key The key to map
+     * @param value The value, which cannot be {@code null}
+     * @return The previous value, or {@code null} if the key was not mapped
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value cannot be null!");
+        }
+        int mask = this.keys.length - 1;
+        int i = LongMap.hash(key) & mask;
+        for (; this.values[i] != null; i = (i + 1) & mask) {
+            if (this.keys[i] == key) {
+                V back = (V) this.values[i];
+                this.values[i] = value;
+                return back;
+            }
+        }
+        if ((this.size + 1) * 4 > this.keys.length * 3) {
+            this.resize(this.keys.length * 2);
+            return this.put(key, value);
+        }
+        this.keys[i] = key;
+        this.values[i] = value;
+        this.size++;
+        return null;
+    }
+
+    /**
+     * Returns the value mapped to a key, mapping a new one first if there
+     * is none
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param key The key to look up
+     * @param creator Creates the value for an unmapped key, which cannot
+     *                return {@code null}
+     * @return The current or new value
+     */
+    public V computeIfAbsent(long key, LongFunction<? extends V> creator) {
+        V back = this.get(key);
+        if (back == null) {
+            back = creator.apply(key);
+            this.put(key, back);
+        }
+        return back;
+    }
+
+    /**
+     * Removes the mapping of a key
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param key The key to remove
+     * @return The removed value, or {@code null} if the key was not mapped
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int mask = this.keys.length - 1;
+        int i = LongMap.hash(key) & mask;
+        for (; this.values[i] != null; i = (i + 1) & mask) {
+            if (this.keys[i] == key) {
+                break;
+            }
+        }
+        V back = (V) this.values[i];
+        if (back == null) {
+            return null;
+        }
+        //Shift later entries of the probe run back into the gap
+        for (int j = (i + 1) & mask; this.values[j] != null; j = (j + 1) & mask) {
+            int home = LongMap.hash(this.keys[j]) & mask;
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                this.keys[i] = this.keys[j];
+                this.values[i] = this.values[j];
+                i = j;
+            }
+        }
+        this.values[i] = null;
+        this.size--;
+        return back;
+    }
+
+    /**
+     * Returns the number of mapped keys
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The size of this map
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns whether no keys are mapped
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return {@code true} if this map is empty
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Removes every mapping
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     */
+    public void clear() {
+        Arrays.fill(this.values, null);
+        this.size = 0;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] == null) {
+                continue;
+            }
+            int i = LongMap.hash(oldKeys[j]) & mask;
+            while (this.values[i] != null) {
+                i = (i + 1) & mask;
+            }
+            this.keys[i] = oldKeys[j];
+            this.values[i] = oldValues[j];
+        }
+    }
+
+    /**
+     * Spreads a key over the table. Packed coordinates differ mostly in
+     * their low bits of each field, so a multiplicative mix is used rather
+     * than the key itself.
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param key The key to hash
+     * @return The mixed hash
+     */
+    static int hash(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+
+}
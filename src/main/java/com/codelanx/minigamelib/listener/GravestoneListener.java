@@ -20,19 +20,21 @@
 package com.codelanx.minigamelib.listener;
 
 import com.codelanx.codelanxlib.listener.SubListener;
-import com.codelanx.codelanxlib.util.Protections;
-import com.codelanx.codelanxlib.util.Scheduler;
 import com.codelanx.minigamelib.CodelanxMinigame;
+import com.codelanx.minigamelib.game.ProfileCache;
 import com.codelanx.minigamelib.internal.ConfigValue;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.concurrent.TimeUnit;
 import org.bukkit.Effect;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.SkullType;
+import org.bukkit.World;
+import org.bukkit.block.Block;
 import org.bukkit.block.Skull;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
 import org.bukkit.event.entity.PlayerDeathEvent;
 
 /**
@@ -44,46 +46,114 @@ import org.bukkit.event.entity.PlayerDeathEvent;
  */
 public class GravestoneListener extends SubListener<CodelanxMinigame<?>> {
 
-    private final Set<Location> protect = new HashSet<>();
+    /** The most blocks searched below a death for ground to place on */
+    private static final int MAX_SCAN = 32;
+    /** Gravestone blocks, protected for a while after they are placed */
+    private final ProtectionWheel protect = new ProtectionWheel(ConfigValue.GRAVESTONE_PROTECT_SECONDS.as(int.class));
 
     public GravestoneListener(CodelanxMinigame<?> plugin) {
         super(plugin);
+        //One tick of the wheel per second, for every gravestone at once
+        plugin.getServer().getScheduler().runTaskTimer(plugin, this.protect::advance, 20L, 20L);
     }
 
     @EventHandler
-    @SuppressWarnings("empty-statement")
     public void onDeath(PlayerDeathEvent event) {
         if (!ConfigValue.GRAVESTONES_ENABLED.as(boolean.class)) {
             return;
         }
-        Location loc = event.getEntity().getLocation().clone();
-        //Purposely empty, will floor Y coordinate until ground is found or nothing
-        for (; loc.getBlockY() < 0 || loc.getBlock().getType() != Material.AIR; loc.add(0, -1, 0));
+        Location death = event.getEntity().getLocation();
+        World world = death.getWorld();
+        int x = death.getBlockX();
+        int z = death.getBlockZ();
+        int y = this.findGround(world, x, death.getBlockY(), z);
         //If ground is not found, don't place a gravestone
-        if (loc.getBlockY() < 0) {
+        if (y < 0) {
             return;
         }
-        //Getting our "headstone" for the player's head
-        loc.getBlock().setType(ConfigValue.GRAVESTONE_MATERIAL.as(Material.class));
-        Location skullLoc = loc.add(0, 1, 0);
-        //Set a skull
-        skullLoc.getBlock().setType(Material.SKULL);
-        Skull skull = (Skull) loc.getBlock();
-        skull.setSkullType(SkullType.PLAYER);
-        //Uses the server's skin cache, but may invoke a blocking web request
-        Scheduler.runAsyncTask(() -> skull.setOwner(event.getEntity().getName()), 0);
+        //Write the headstone and skull without physics, the skull update below applies it once for both
+        Block stone = world.getBlockAt(x, y, z);
+        Block head = world.getBlockAt(x, y + 1, z);
+        stone.setType(ConfigValue.GRAVESTONE_MATERIAL.as(Material.class), false);
+        head.setType(Material.SKULL, false);
         //Position skull atop grave headstone
-        loc.getBlock().setData((byte) 0x1, true);
+        head.setData((byte) 0x1, false);
+        Skull skull = (Skull) head.getState();
+        //Only skinned from a cached profile, a miss keeps the default head rather than blocking on a lookup
+        ProfileCache cache = this.plugin.getProfileCache();
+        if (cache == null) {
+            skull.setSkullType(SkullType.PLAYER);
+        } else {
+            cache.apply(skull, event.getEntity().getUniqueId());
+        }
+        skull.update(true, true);
         //Add some effects for flair
-        loc.getWorld().playEffect(loc, Effect.SMOKE, 4);
-        loc.getWorld().playEffect(loc, Effect.ENDER_SIGNAL, 1);
-        //lastly, protect the gravestone for 5 minutes
-        Protections.protect(loc);
-        Protections.protect(skullLoc);
-        Scheduler.runAsyncTask(() -> {
-            Protections.unprotect(loc);
-            Protections.unprotect(skullLoc);
-        }, TimeUnit.MINUTES.toSeconds(5));
+        Location loc = head.getLocation();
+        world.playEffect(loc, Effect.SMOKE, 4);
+        world.playEffect(loc, Effect.ENDER_SIGNAL, 1);
+        //lastly, protect the gravestone for a while
+        this.protect.protect(world.getUID(), x, y, z);
+        this.protect.protect(world.getUID(), x, y + 1, z);
+    }
+
+    /**
+     * Finds where a headstone can stand in a column: an air block with
+     * ground below it and air above it for the skull. Deaths below the world
+     * and columns with nothing in them are rejected from the heightmap
+     * without looking at any blocks, otherwise at most
+     * {@link #MAX_SCAN} blocks are checked below the death location.
+     *
+     * @since 0.0.1
+     * @version 0.0.1
+     *
+     * @param world The {@link World} of the death
+     * @param x The block x coordinate of the death
+     * @param y The block y coordinate of the death
+     * @param z The block z coordinate of the death
+     * @return The y coordinate for the headstone, or {@code -1} if there is
+     *         no ground to place it on
+     */
+    private int findGround(World world, int x, int y, int z) {
+        //Died in the void, there is nothing below to stand on
+        if (y < 1) {
+            return -1;
+        }
+        //The first block above the top of the column, 0 if the column is empty
+        int top = world.getHighestBlockYAt(x, z);
+        if (top < 1) {
+            return -1;
+        }
+        //Everything above the heightmap is open sky, so fall straight to it
+        y = Math.min(y, top);
+        int floor = Math.max(1, y - MAX_SCAN);
+        while (y > floor && world.getBlockAt(x, y - 1, z).getType() == Material.AIR) {
+            y--;
+        }
+        if (y + 1 >= world.getMaxHeight()
+                || world.getBlockAt(x, y - 1, z).getType() == Material.AIR
+                || world.getBlockAt(x, y, z).getType() != Material.AIR
+                || world.getBlockAt(x, y + 1, z).getType() != Material.AIR) {
+            return -1;
+        }
+        return y;
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onBreak(BlockBreakEvent event) {
+        Block b = event.getBlock();
+        if (this.protect.isProtected(b.getWorld().getUID(), b.getX(), b.getY(), b.getZ())) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onExplode(EntityExplodeEvent event) {
+        this.protect.removeProtected(event.getLocation().getWorld().getUID(), event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onExplode(BlockExplodeEvent event) {
+        this.protect.removeProtected(event.getBlock().getWorld().getUID(), event.blockList());
     }
 
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.listener;
+
+import com.codelanx.codelanxlib.listener.SubListener;
+import com.codelanx.minigamelib.CodelanxMinigame;
+import com.codelanx.minigamelib.arena.Arena;
+import com.codelanx.minigamelib.arena.ArenaRegionIndex;
+import com.codelanx.minigamelib.arena.EditSession;
+import com.codelanx.minigamelib.arena.ProtectionMask;
+import com.codelanx.minigamelib.event.ArenaLoadEvent;
+import com.codelanx.minigamelib.event.ArenaPreDisposeEvent;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+
+/**
+ * Keeps the protected walls of loaded arenas from being broken, built over
+ * or blown up. The {@link ArenaRegionIndex} of an {@link Arena} is flattened
+ * into a {@link ProtectionMask} per world when the {@link Arena} loads, so
+ * each event is checked with a single bit lookup.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class ProtectionListener extends SubListener<CodelanxMinigame<?>> {
+
+    /** Protected blocks of the worlds holding arenas, by world id */
+    private final Map<UUID, ProtectionMask> masks = new HashMap<>();
+
+    public ProtectionListener(CodelanxMinigame<?> plugin) {
+        super(plugin);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLoad(ArenaLoadEvent event) {
+        Arena arena = event.getArena();
+        if (arena instanceof EditSession || arena.getWorld() == null) {
+            return;
+        }
+        this.masks.computeIfAbsent(arena.getWorld().getUID(), k -> new ProtectionMask()).add(arena);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onDispose(ArenaPreDisposeEvent event) {
+        Arena arena = event.getArena();
+        if (arena.getWorld() == null) {
+            return;
+        }
+        UUID world = arena.getWorld().getUID();
+        ProtectionMask mask = this.masks.get(world);
+        if (mask != null && mask.remove(arena) && mask.isEmpty()) {
+            this.masks.remove(world);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onBreak(BlockBreakEvent event) {
+        if (this.isProtected(event.getBlock())) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onPlace(BlockPlaceEvent event) {
+        if (this.isProtected(event.getBlock())) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onExplode(EntityExplodeEvent event) {
+        ProtectionMask mask = this.masks.get(event.getLocation().getWorld().getUID());
+        if (mask != null) {
+            mask.removeProtected(event.blockList());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onExplode(BlockExplodeEvent event) {
+        ProtectionMask mask = this.masks.get(event.getBlock().getWorld().getUID());
+        if (mask != null) {
+            mask.removeProtected(event.blockList());
+        }
+    }
+
+    private boolean isProtected(Block block) {
+        World world = block.getWorld();
+        ProtectionMask mask = this.masks.get(world.getUID());
+        return mask != null && mask.isProtected(block);
+    }
+
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.listener;
+
+import com.codelanx.minigamelib.internal.LongLongMap;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.bukkit.block.Block;
+
+/**
+ * A hashed timing wheel of protected blocks that expire after a fixed
+ * number of seconds. Block positions are packed into longs and kept in a
+ * {@link LongLongMap} of deadlines per world, and the wheel is advanced by a
+ * single repeating task, however many blocks are protected.
+ * <br><br>
+ * The wheel has more slots than the protection lasts in seconds, so every
+ * entry expires on the first pass over its slot. Protecting a block again
+ * extends its deadline, and the older entry is skipped when it comes due.
+ * Not thread-safe; used on the main thread.
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+final class ProtectionWheel {
+
+    /** How long a protection lasts, in ticks of the wheel */
+    private final int duration;
+    /** Slot index mask, the wheel size being a power of two */
+    private final int mask;
+    /** Packed positions due in each slot */
+    private final long[][] due;
+    /** The world each due position belongs to */
+    private final UUID[][] owners;
+    /** Number of entries in each slot */
+    private final int[] counts;
+    /** The deadline of each protected block, by world */
+    private final Map<UUID, LongLongMap> worlds = new HashMap<>();
+    /** The current tick of the wheel */
+    private long now;
+
+    /**
+     * {@link ProtectionWheel} constructor
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param duration How many ticks of the wheel a protection lasts
+     */
+    ProtectionWheel(int duration) {
+        this.duration = Math.max(1, duration);
+        int size = Integer.highestOneBit(this.duration) << 1;
+        this.mask = size - 1;
+        this.due = new long[size][];
+        this.owners = new UUID[size][];
+        this.counts = new int[size];
+    }
+
+    /**
+     * Protects a block until the wheel has advanced a full duration
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param world The id of the block's world
+     * @param x The block x coordinate
+     * @param y The block y coordinate
+     * @param z The block z coordinate
+     */
+    void protect(UUID world, int x, int y, int z) {
+        long pos = ProtectionWheel.pack(x, y, z);
+        long deadline = this.now + this.duration;
+        this.worlds.computeIfAbsent(world, k -> new LongLongMap()).put(pos, deadline);
+        int slot = (int) (deadline & this.mask);
+        int n = this.counts[slot];
+        if (this.due[slot] == null) {
+            this.due[slot] = new long[8];
+            this.owners[slot] = new UUID[8];
+        } else if (n == this.due[slot].length) {
+            this.due[slot] = Arrays.copyOf(this.due[slot], n * 2);
+            this.owners[slot] = Arrays.copyOf(this.owners[slot], n * 2);
+        }
+        this.due[slot][n] = pos;
+        this.owners[slot][n] = world;
+        this.counts[slot] = n + 1;
+    }
+
+    /**
+     * Returns whether a block is protected
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param world The id of the block's world
+     * @param x The block x coordinate
+     * @param y The block y coordinate
+     * @param z The block z coordinate
+     * @return {@code true} if the block is protected
+     */
+    boolean isProtected(UUID world, int x, int y, int z) {
+        LongLongMap set = this.worlds.get(world);
+        return set != null && set.containsKey(ProtectionWheel.pack(x, y, z));
+    }
+
+    /**
+     * Removes every protected block from a {@link List} in a single pass
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @param world The id of the blocks' world
+     * @param blocks The {@link List} of blocks to filter, which must support
+     *               {@link List#set(int, Object)}
+     * @return The number of blocks removed
+     */
+    int removeProtected(UUID world, List<Block> blocks) {
+        LongLongMap set = this.worlds.get(world);
+        if (set == null) {
+            return 0;
+        }
+        int total = blocks.size();
+        int kept = 0;
+        for (int i = 0; i < total; i++) {
+            Block b = blocks.get(i);
+            if (!set.containsKey(ProtectionWheel.pack(b.getX(), b.getY(), b.getZ()))) {
+                blocks.set(kept++, b);
+            }
+        }
+        blocks.subList(kept, total).clear();
+        return total - kept;
+    }
+
+    /**
+     * Moves the wheel forward one tick and expires the protections that are
+     * due
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of blocks no longer protected
+     */
+    int advance() {
+        this.now++;
+        int slot = (int) (this.now & this.mask);
+        int n = this.counts[slot];
+        if (n == 0) {
+            return 0;
+        }
+        long[] positions = this.due[slot];
+        UUID[] ids = this.owners[slot];
+        int expired = 0;
+        for (int i = 0; i < n; i++) {
+            LongLongMap set = this.worlds.get(ids[i]);
+            //A later protect of the same block pushed its deadline past this entry
+            if (set != null && set.get(positions[i], Long.MAX_VALUE) <= this.now) {
+                set.remove(positions[i]);
+                expired++;
+                if (set.isEmpty()) {
+                    this.worlds.remove(ids[i]);
+                }
+            }
+            ids[i] = null;
+        }
+        this.counts[slot] = 0;
+        return expired;
+    }
+
+    /**
+     * Returns the number of blocks currently protected
+     *
+     * @since 1.0.0
+     * @version 1.0.0
+     *
+     * @return The number of protected blocks
+     */
+    int size() {
+        return this.worlds.values().stream().mapToInt(LongLongMap::size).sum();
+    }
+
+    private static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2015 Codelanx, All Rights Reserved
+ *
+ * This work is licensed under a Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License.
+ *
+ * This program is protected software: You are free to distrubute your
+ * own use of this software under the terms of the Creative Commons BY-NC-ND
+ * license as published by Creative Commons in the year 2015 or as published
+ * by a later date. You may not provide the source files or provide a means
+ * of running the software outside of those licensed to use it.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * You should have received a copy of the Creative Commons BY-NC-ND license
+ * long with this program. If not, see <https://creativecommons.org/licenses/>.
+ */
+package com.codelanx.minigamelib.arena;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Round trips world folders through {@link PackedTemplate}
+ *
+ * @since 1.0.0
+ * @author 1Rogue
+ * @version 1.0.0
+ */
+public class PackedTemplateTest {
+
+    private File root;
+
+    @Before
+    public void setUp() throws IOException {
+        this.root = Files.createTempDirectory("packed-template").toFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> walk = Files.walk(this.root.toPath())) {
+            walk.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        File world = new File(this.root, "arena");
+        Random rand = new Random(0x4D474C50);
+        for (int x = -1; x <= 1; x++) {
+            for (int z = -1; z <= 1; z++) {
+                this.write(new File(world, "region/r." + x + "." + z + ".mca"), rand, 8192 + rand.nextInt(65536));
+            }
+        }
+        this.write(new File(world, "level.dat"), rand, 1024);
+        this.write(new File(world, "config.yml"), rand, 0);
+        this.write(new File(world, "data/villages/villages.dat"), rand, 256);
+        new File(world, "playerdata").mkdirs();
+        new File(world, "level.dat").setLastModified(1420070400000L);
+        File packed = PackedTemplate.locate(world);
+        Assert.assertEquals(new File(this.root, "arena" + PackedTemplate.EXTENSION), packed);
+        PackedTemplate.pack(world, packed);
+        File copy = new File(this.root, "instance");
+        PackedTemplate.unpack(packed, copy);
+        List<String> expected = this.list(world);
+        Assert.assertEquals(expected, this.list(copy));
+        for (String path : expected) {
+            File a = new File(world, path);
+            File b = new File(copy, path);
+            Assert.assertEquals(path, a.isDirectory(), b.isDirectory());
+            if (a.isFile()) {
+                Assert.assertArrayEquals(path, Files.readAllBytes(a.toPath()), Files.readAllBytes(b.toPath()));
+                Assert.assertEquals(path, a.lastModified() / 1000, b.lastModified() / 1000);
+            }
+        }
+    }
+
+    @Test
+    public void testRepackReplacesPack() throws IOException {
+        File world = new File(this.root, "arena");
+        this.write(new File(world, "level.dat"), new Random(1), 64);
+        File packed = PackedTemplate.locate(world);
+        PackedTemplate.pack(world, packed);
+        File first = new File(this.root, "first");
+        PackedTemplate.unpack(packed, first);
+        this.write(new File(world, "level.dat"), new Random(2), 128);
+        PackedTemplate.pack(world, packed);
+        File second = new File(this.root, "second");
+        PackedTemplate.unpack(packed, second);
+        Assert.assertArrayEquals(Files.readAllBytes(new File(world, "level.dat").toPath()),
+                Files.readAllBytes(new File(second, "level.dat").toPath()));
+    }
+
+    @Test
+    public void testRejectsParentPath() throws IOException {
+        this.assertRejected("../escaped.dat");
+        Assert.assertFalse(new File(this.root, "escaped.dat").exists());
+    }
+
+    @Test
+    public void testRejectsNestedParentPath() throws IOException {
+        this.assertRejected("region/../../escaped.dat");
+        Assert.assertFalse(new File(this.root, "escaped.dat").exists());
+    }
+
+    @Test
+    public void testRejectsAbsolutePath() throws IOException {
+        this.assertRejected("/tmp/escaped.dat");
+    }
+
+    @Test
+    public void testRejectsBadMagic() throws IOException {
+        File bad = new File(this.root, "bad" + PackedTemplate.EXTENSION);
+        Files.write(bad.toPath(), "not a pack".getBytes(StandardCharsets.UTF_8));
+        try {
+            PackedTemplate.unpack(bad, new File(this.root, "out"));
+            Assert.fail("Unpacked a file without the pack header");
+        } catch (IOException ex) {
+            //Expected
+        }
+    }
+
+    private void assertRejected(String path) throws IOException {
+        byte[] data = "escaped".getBytes(StandardCharsets.UTF_8);
+        byte[] raw = path.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0x4D474C50);
+            out.writeInt(1);
+            out.writeInt(0);
+            out.writeInt(1);
+            out.writeShort(raw.length);
+            out.write(raw);
+            out.writeLong(0);
+            //Data starts right after this entry
+            out.writeLong(16 + 2 + raw.length + 24);
+            out.writeLong(data.length);
+            out.write(data);
+        }
+        File evil = new File(this.root, "evil" + PackedTemplate.EXTENSION);
+        Files.write(evil.toPath(), bytes.toByteArray());
+        File out = new File(this.root, "out");
+        try {
+            PackedTemplate.unpack(evil, out);
+            Assert.fail("Unpacked the illegal path " + path);
+        } catch (IOException ex) {
+            //Expected, and nothing may have been written
+            Assert.assertFalse(out.exists());
+        }
+    }
+
+    private void write(File file, Random rand, int size) throws IOException {
+        file.getParentFile().mkdirs();
+        byte[] data = new byte[size];
+        rand.nextBytes(data);
+        Files.write(file.toPath(), data);
+    }
+
+    private List<String> list(File folder) throws IOException {
+        Path base = folder.toPath();
+        try (Stream<Path> walk = Files.walk(base)) {
+            return walk.filter(p -> !p.equals(base)).map(p -> base.relativize(p).toString())
+                    .sorted().collect(Collectors.toList());
+        }
+    }
+
+}